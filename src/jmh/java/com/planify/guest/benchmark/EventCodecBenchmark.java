@@ -0,0 +1,75 @@
+package com.planify.guest.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.event.EventCodec;
+import com.planify.guest.event.GuestInvited;
+import com.planify.guest.event.RsvpChanged;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tree-based decoding and per-call ObjectMapper encoding that the consumer and
+ * GuestService used to do with the shared {@link EventCodec}. Run with the gc profiler (the
+ * profile's default) and compare gc.alloc.rate.norm, the bytes allocated per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventCodecBenchmark {
+
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+
+    private byte[] guestInvitedPayload;
+    private UUID eventId;
+    private UUID userId;
+
+    @Setup
+    public void setUp() {
+        eventId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        guestInvitedPayload = ("{\"eventId\":\"" + eventId + "\",\"userId\":\"" + userId
+                + "\",\"organizationId\":\"" + UUID.randomUUID() + "\",\"timestamp\":\"2024-12-24T10:00:00Z\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public GuestInvited decodeGuestInvitedTree() throws IOException {
+        // StringDeserializer followed by readTree and per-field UUID parsing
+        String message = new String(guestInvitedPayload, StandardCharsets.UTF_8);
+        JsonNode json = legacyMapper.readTree(message);
+        return new GuestInvited(
+                UUID.fromString(json.get("eventId").asText()),
+                UUID.fromString(json.get("userId").asText()),
+                UUID.fromString(json.get("organizationId").asText()));
+    }
+
+    @Benchmark
+    public GuestInvited decodeGuestInvitedCodec() throws IOException {
+        return EventCodec.decodeGuestInvited(guestInvitedPayload);
+    }
+
+    @Benchmark
+    public String encodeRsvpNewMapper() throws IOException {
+        Map<String, Object> payload = Map.of(
+                "eventId", eventId.toString(),
+                "userId", userId.toString(),
+                "wasAccepted", true,
+                "timestamp", LocalDateTime.now().toString());
+        return new ObjectMapper().writeValueAsString(payload);
+    }
+
+    @Benchmark
+    public String encodeRsvpCodec() throws IOException {
+        return EventCodec.encode(new RsvpChanged(eventId, userId, true, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.planify.guest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+import com.planify.guest.repository.InvitationRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One read of a 50,000-guest event as the internal invitations endpoint does it: a read-only
+ * transaction loads the rows and Jackson writes them to the response stream (discarded here).
+ * {@code entities} loads managed {@link Invitation}s, {@code views} the {@link InvitationView}
+ * projection the service returns. Run with the GC profiler to compare bytes per read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvitationProjectionBenchmark {
+
+    private static final int GUESTS = 50_000;
+
+    private ConfigurableApplicationContext context;
+    private InvitationRepository invitationRepository;
+    private TransactionTemplate readOnly;
+    private ObjectMapper objectMapper;
+    private UUID eventId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InvitationRepositoryBenchmark.RepositorySlice.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of(
+                        // Keep application.yaml (Postgres, Kafka, Flyway) out of this context
+                        "spring.config.name", "benchmark",
+                        "spring.datasource.url", "jdbc:h2:mem:guest-projection-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto", "create",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size", "500",
+                        "spring.main.banner-mode", "off"))
+                .run();
+        invitationRepository = context.getBean(InvitationRepository.class);
+        InvitationRepositoryBenchmark.MIGRATION_INDEXES.forEach(context.getBean(JdbcTemplate.class)::execute);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        eventId = UUID.randomUUID();
+        UUID organizationId = UUID.randomUUID();
+        List<Invitation> invitations = new ArrayList<>(GUESTS);
+        for (int g = 0; g < GUESTS; g++) {
+            invitations.add(Invitation.builder()
+                    .eventId(eventId)
+                    .userId(UUID.randomUUID())
+                    .organizationId(organizationId)
+                    .build());
+        }
+        invitationRepository.saveAll(invitations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entities() {
+        readAndWrite(Invitation.class);
+    }
+
+    @Benchmark
+    public void views() {
+        readAndWrite(InvitationView.class);
+    }
+
+    private void readAndWrite(Class<?> type) {
+        readOnly.executeWithoutResult(status -> {
+            try {
+                objectMapper.writeValue(OutputStream.nullOutputStream(), invitationRepository.findByEventId(eventId, type));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.planify.guest.benchmark;
+
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+import com.planify.guest.repository.InvitationRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derived {@link InvitationRepository} queries against an in-memory H2 database in PostgreSQL
+ * mode. Only the JPA slice of the application is started; tables come from the entity mappings
+ * and the indexes of the Flyway migrations are added on top. Native PostgreSQL statements (unnest, ON CONFLICT) are not covered here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvitationRepositoryBenchmark {
+
+    private static final int EVENTS = 100;
+    private static final int GUESTS_PER_EVENT = 200;
+    private static final Sort KEYSET_ORDER = Sort.by("invitationReceivedAt", "id");
+
+    private ConfigurableApplicationContext context;
+    private InvitationRepository invitationRepository;
+    private List<Invitation> seeded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RepositorySlice.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of(
+                        // Keep application.yaml (Postgres, Kafka, Flyway) out of this context
+                        "spring.config.name", "benchmark",
+                        "spring.datasource.url", "jdbc:h2:mem:guest-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto", "create",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size", "500",
+                        "spring.main.banner-mode", "off"))
+                .run();
+        invitationRepository = context.getBean(InvitationRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        MIGRATION_INDEXES.forEach(jdbcTemplate::execute);
+
+        List<Invitation> invitations = new ArrayList<>(EVENTS * GUESTS_PER_EVENT);
+        UUID organizationId = UUID.randomUUID();
+        for (int e = 0; e < EVENTS; e++) {
+            UUID eventId = UUID.randomUUID();
+            for (int g = 0; g < GUESTS_PER_EVENT; g++) {
+                invitations.add(Invitation.builder()
+                        .eventId(eventId)
+                        .userId(UUID.randomUUID())
+                        .organizationId(organizationId)
+                        .build());
+            }
+        }
+        seeded = invitationRepository.saveAll(invitations);
+    }
+
+    // Same indexes as the Flyway migrations, which do not run against H2
+    static final List<String> MIGRATION_INDEXES = List.of(
+            "CREATE UNIQUE INDEX uq_invitations_event_user ON invitations(event_id, user_id)",
+            "CREATE INDEX idx_invitations_event_received ON invitations(event_id, invitation_received_at, id)",
+            "CREATE INDEX idx_invitations_user_received ON invitations(user_id, invitation_received_at, id)",
+            "CREATE INDEX idx_invitations_organization_received ON invitations(organization_id, invitation_received_at, id)",
+            "CREATE INDEX idx_invitations_user_status ON invitations(user_id, rsvp_status)",
+            "CREATE INDEX idx_invitations_event_status ON invitations(event_id, rsvp_status)");
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<InvitationView> findByEventIdAndUserId() {
+        Invitation target = randomInvitation();
+        return invitationRepository.findByEventIdAndUserId(target.getEventId(), target.getUserId(), InvitationView.class);
+    }
+
+    @Benchmark
+    public boolean existsByEventIdAndUserId() {
+        Invitation target = randomInvitation();
+        return invitationRepository.existsByEventIdAndUserId(target.getEventId(), target.getUserId());
+    }
+
+    @Benchmark
+    public List<InvitationView> findByUserId() {
+        return invitationRepository.findByUserId(randomInvitation().getUserId(), InvitationView.class);
+    }
+
+    @Benchmark
+    public List<InvitationView> findByEventId() {
+        return invitationRepository.findByEventId(randomInvitation().getEventId(), InvitationView.class);
+    }
+
+    @Benchmark
+    public Window<InvitationView> findByEventIdKeysetPage() {
+        return invitationRepository.findByEventId(randomInvitation().getEventId(),
+                ScrollPosition.keyset(), KEYSET_ORDER, Limit.of(50), InvitationView.class);
+    }
+
+    private Invitation randomInvitation() {
+        return seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            DataSourceTransactionManagerAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class
+    })
+    @EntityScan(basePackageClasses = Invitation.class)
+    @EnableJpaRepositories(
+            basePackageClasses = InvitationRepository.class,
+            includeFilters = @ComponentScan.Filter(
+                    type = FilterType.ASSIGNABLE_TYPE,
+                    classes = InvitationRepository.class))
+    static class RepositorySlice {
+    }
+}
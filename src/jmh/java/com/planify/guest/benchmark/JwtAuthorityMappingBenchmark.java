@@ -0,0 +1,49 @@
+package com.planify.guest.benchmark;
+
+import com.planify.guest.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of mapping a Keycloak access token to granted authorities with
+ * {@link SecurityConfig#keycloakJwtAuthenticationConverter()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthorityMappingBenchmark {
+
+    private JwtAuthenticationConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        converter = new SecurityConfig().keycloakJwtAuthenticationConverter();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("990e8400-e29b-41d4-a716-446655440004")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("scope", "openid profile email")
+                .claim("realm_access", Map.of("roles", List.of("uporabnik", "offline_access", "uma_authorization")))
+                .claim("resource_access", Map.of(
+                        "planify-frontend", Map.of("roles", List.of("organiser")),
+                        "account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile"))))
+                .build();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken mapAuthorities() {
+        return converter.convert(jwt);
+    }
+}
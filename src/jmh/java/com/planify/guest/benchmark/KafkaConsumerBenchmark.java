@@ -0,0 +1,57 @@
+package com.planify.guest.benchmark;
+
+import com.planify.guest.event.KafkaConsumer;
+import com.planify.guest.service.GuestService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one poll of guest-invited records into GuestInvited values inside
+ * {@link KafkaConsumer#consumeGuestInvited(List, Consumer)}. The service is a stub, so only
+ * decoding, batch assembly and the consumer metrics are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaConsumerBenchmark {
+
+    @Param({"1", "100", "500"})
+    private int batchSize;
+
+    private KafkaConsumer kafkaConsumer;
+    private Consumer<?, ?> consumer;
+    private List<ConsumerRecord<String, byte[]>> batch;
+
+    @Setup
+    public void setUp() {
+        // stubOnly: do not record invocations, which would retain every batch
+        kafkaConsumer = new KafkaConsumer(Mockito.mock(GuestService.class, Mockito.withSettings().stubOnly()),
+                new SimpleMeterRegistry(), 0);
+        consumer = Mockito.mock(Consumer.class, Mockito.withSettings().stubOnly());
+        UUID eventId = UUID.randomUUID();
+        UUID organizationId = UUID.randomUUID();
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new ConsumerRecord<>("guest-invited", 0, i, null, ("{\"eventId\":\"" + eventId + "\",\"userId\":\"" + UUID.randomUUID()
+                    + "\",\"organizationId\":\"" + organizationId + "\",\"timestamp\":\"2024-12-24T10:00:00Z\"}")
+                    .getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Benchmark
+    public void consumeGuestInvitedBatch() {
+        kafkaConsumer.consumeGuestInvited(batch, consumer);
+    }
+}
@@ -0,0 +1,159 @@
+package com.planify.guest.benchmark;
+
+import com.planify.guest.config.UserServiceClientConfig;
+import com.planify.guest.service.UserServiceClient;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Load test for the two thread modes: a burst of concurrent authorization calls against a
+ * user-service stub that answers after a fixed delay.
+ *
+ * {@code mode} picks the request threads: {@code platform} runs 200 of them (Tomcat's default),
+ * {@code virtual} one virtual thread per request. {@code limits} picks the bulkhead and HTTP pool:
+ * <ul>
+ *   <li>{@code profile}: each mode with its own configuration, a bulkhead of 10 with 1s wait and
+ *       a pool of 50 for platform threads, a bulkhead of 2000 with 5s wait and a pool of 500 in
+ *       the virtual-threads profile.</li>
+ *   <li>{@code shared}: both modes with the virtual-threads profile limits, so the difference
+ *       comes from the threads alone.</li>
+ * </ul>
+ *
+ * Each invocation is one burst; the score is the time until every call finished. The
+ * {@code rejected} counter shows how many calls the bulkhead turned away, {@code failed} how many
+ * timed out waiting for a connection or the stub.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+// The JDK stub server closes idle keep-alive connections beyond its default limit of 200
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.maxIdleConnections=4096")
+@State(Scope.Benchmark)
+public class ThreadModeLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"profile", "shared"})
+    private String limits;
+
+    @Param({"2000"})
+    private int concurrentCalls;
+
+    @Param({"50"})
+    private int userServiceDelayMillis;
+
+    private HttpServer userServiceStub;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private UserServiceClient userServiceClient;
+    private Bulkhead bulkhead;
+    private ExecutorService requestExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        userServiceStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        // The stub stands in for a remote service, so it must not share carrier threads with the callers
+        userServiceStub.setExecutor(Executors.newCachedThreadPool());
+        userServiceStub.createContext("/api/auth/", exchange -> {
+            try {
+                Thread.sleep(userServiceDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "[\"ORGANISER\"]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        userServiceStub.start();
+
+        boolean virtual = "virtual".equals(mode);
+        boolean virtualLimits = virtual || "shared".equals(limits);
+        UserServiceClientConfig config = new UserServiceClientConfig();
+        connectionManager = config.userServiceConnectionManager(virtualLimits ? 500 : 50,
+                Duration.ofSeconds(2), Duration.ofSeconds(3), Duration.ofMinutes(5));
+        httpClient = config.userServiceHttpClient(connectionManager,
+                virtualLimits ? Duration.ofSeconds(5) : Duration.ofSeconds(1), Duration.ofSeconds(3), Duration.ofSeconds(30));
+        userServiceClient = new UserServiceClient(config.userServiceRestTemplate(new RestTemplateBuilder(), httpClient,
+                "http://127.0.0.1:" + userServiceStub.getAddress().getPort()));
+        bulkhead = Bulkhead.of("keycloakService", BulkheadConfig.custom()
+                .maxConcurrentCalls(virtualLimits ? 2000 : 10)
+                .maxWaitDuration(virtualLimits ? Duration.ofSeconds(5) : Duration.ofSeconds(1))
+                .build());
+        requestExecutor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        requestExecutor.shutdownNow();
+        httpClient.close();
+        connectionManager.close();
+        userServiceStub.stop(0);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long succeeded;
+        public long rejected;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            succeeded = 0;
+            rejected = 0;
+            failed = 0;
+        }
+    }
+
+    @Benchmark
+    public void authorizationBurst(Outcomes outcomes) throws InterruptedException {
+        UUID orgId = UUID.randomUUID();
+        Supplier<Boolean> call = Bulkhead.decorateSupplier(bulkhead,
+                () -> userServiceClient.getOrganizationRoles(orgId, "token").contains("ORGANISER"));
+
+        List<Future<Boolean>> calls = new ArrayList<>(concurrentCalls);
+        for (int i = 0; i < concurrentCalls; i++) {
+            calls.add(requestExecutor.submit(call::get));
+        }
+        for (Future<Boolean> result : calls) {
+            try {
+                result.get();
+                outcomes.succeeded++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof BulkheadFullException) {
+                    outcomes.rejected++;
+                } else {
+                    outcomes.failed++;
+                }
+            }
+        }
+    }
+}
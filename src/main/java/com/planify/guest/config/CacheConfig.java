@@ -0,0 +1,38 @@
+package com.planify.guest.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.planify.guest.service.SecurityService.OrganizationRoleKey;
+import com.planify.guest.service.SecurityService.RoleLookup;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Organization roles per (token subject, orgId). Successful lookups live for {@code ttl},
+     * failed ones only for {@code negative-ttl}. Hit/miss/eviction statistics are published
+     * as cache.* meters tagged cache=organization-roles.
+     */
+    @Bean
+    public AsyncCache<OrganizationRoleKey, RoleLookup> organizationRoleCache(
+            MeterRegistry meterRegistry,
+            @Value("${user.service.roles-cache.maximum-size:10000}") long maximumSize,
+            @Value("${user.service.roles-cache.ttl:60s}") Duration ttl,
+            @Value("${user.service.roles-cache.negative-ttl:5s}") Duration negativeTtl) {
+        AsyncCache<OrganizationRoleKey, RoleLookup> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<OrganizationRoleKey, RoleLookup>creating(
+                        (key, lookup) -> lookup.failed() ? negativeTtl : ttl))
+                .recordStats()
+                .buildAsync();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "organization-roles");
+    }
+}
@@ -0,0 +1,93 @@
+package com.planify.guest.config;
+
+import com.planify.guest.service.ReadYourWritesWindow;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to a read replica.
+ *
+ * Two Hikari pools, {@code primary} and {@code replica}, each publish their own hikaricp.*
+ * meters (tag {@code pool}), so read spikes show up, and queue, on the replica pool only.
+ * The DataSource the application uses hands out lazy connections: the pool is chosen when a
+ * transaction runs its first statement, after its read-only flag is known. Read-only work
+ * goes to the replica unless {@link ReadYourWritesWindow} requires the primary; everything
+ * else, and Flyway, uses the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "guest.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("guest.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${guest.datasource.replica.url}") String url,
+                                              @Value("${guest.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${guest.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return routingDataSource(primary, replica);
+    }
+
+    static DataSource routingDataSource(DataSource primary, DataSource replica) {
+        ReadOnlyRoutingDataSource readOnly = new ReadOnlyRoutingDataSource();
+        readOnly.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        readOnly.setDefaultTargetDataSource(replica);
+        readOnly.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(readOnly);
+        return proxy;
+    }
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    /**
+     * Target for read-only connections: the replica, or the primary inside a read-your-writes window.
+     */
+    static class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return ReadYourWritesWindow.isPrimaryRequired() ? Route.PRIMARY : Route.REPLICA;
+        }
+    }
+}
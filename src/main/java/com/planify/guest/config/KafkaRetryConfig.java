@@ -0,0 +1,122 @@
+package com.planify.guest.config;
+
+import com.planify.guest.event.DeadLetterReplayer;
+import com.planify.guest.event.DeadLetterRouting;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener containers for the guest topics and their retry topics.
+ *
+ * Both containers hand a failed record to a {@link DeadLetterPublishingRecoverer} on its first
+ * failure instead of retrying it in place, so a failing record never holds up its partition;
+ * {@link DeadLetterRouting} picks the retry or dead-letter topic. Failed and dead-lettered
+ * records keep their raw bytes, so they are published through a producer of their own with a
+ * byte array serializer. The organization role replica has a container factory of its own in
+ * {@link RoleReplicaKafkaConfig}.
+ */
+@Configuration
+public class KafkaRetryConfig {
+
+    private final DefaultKafkaProducerFactory<String, byte[]> deadLetterProducerFactory;
+    private final KafkaTemplate<String, byte[]> deadLetterTemplate;
+
+    public KafkaRetryConfig(KafkaProperties kafkaProperties, ObjectProvider<SslBundles> sslBundles) {
+        this.deadLetterProducerFactory = new DefaultKafkaProducerFactory<>(
+                kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable()),
+                new StringSerializer(), new ByteArraySerializer());
+        this.deadLetterTemplate = new KafkaTemplate<>(deadLetterProducerFactory);
+    }
+
+    @PreDestroy
+    void close() {
+        deadLetterProducerFactory.destroy();
+    }
+
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(DeadLetterRouting deadLetterRouting) {
+        DeadLetterPublishingRecoverer recoverer =
+                new DeadLetterPublishingRecoverer(deadLetterTemplate, deadLetterRouting::destination);
+        recoverer.setHeadersFunction(deadLetterRouting::headers);
+        return recoverer;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> guestEventListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DeadLetterPublishingRecoverer recoverer) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setCommonErrorHandler(errorHandler(recoverer));
+        return factory;
+    }
+
+    /**
+     * Waiting records are nacked for their remaining delay, which needs manual acknowledgement.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> guestRetryListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DeadLetterPublishingRecoverer recoverer) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(false);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        DefaultErrorHandler errorHandler = errorHandler(recoverer);
+        errorHandler.setCommitRecovered(true);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics guestRetryTopics(@Value("${guest.kafka.retry.partitions:1}") int partitions) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : DeadLetterRouting.TOPICS) {
+            topics.add(TopicBuilder.name(DeadLetterRouting.retryTopic(topic)).partitions(partitions).build());
+            topics.add(TopicBuilder.name(DeadLetterRouting.deadLetterTopic(topic)).partitions(partitions).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    @Bean
+    public DeadLetterReplayer deadLetterReplayer(ConsumerFactory<Object, Object> consumerFactory,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${spring.application.name}") String applicationName) {
+        return new DeadLetterReplayer(consumerFactory, deadLetterTemplate, meterRegistry,
+                applicationName + "-dlt-replay");
+    }
+
+    // No retries in place: the record goes to the retry topic right away. Routing logs one
+    // line per failure, so the handler's own stack trace logging is turned down.
+    private static DefaultErrorHandler errorHandler(DeadLetterPublishingRecoverer recoverer) {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
+        errorHandler.setLogLevel(KafkaException.Level.DEBUG);
+        return errorHandler;
+    }
+}
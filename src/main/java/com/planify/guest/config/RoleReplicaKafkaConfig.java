@@ -0,0 +1,53 @@
+package com.planify.guest.config;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.List;
+
+/**
+ * Listener container for the organization role replica.
+ *
+ * Every instance needs the whole role topic, so the replica assigns itself all partitions instead
+ * of joining a consumer group, and no broker-side group is left behind by a restart. Its position
+ * comes from the on-disk snapshot, so the container acknowledges manually and never does, which
+ * keeps it from committing offsets. The partitions are looked up once at startup; partitions
+ * added to the topic later are read after the next restart.
+ */
+@Configuration
+@ConditionalOnProperty(name = "guest.role-replica.enabled", havingValue = "true")
+public class RoleReplicaKafkaConfig {
+
+    /**
+     * Partition numbers of the role topic, for the listener's manual assignment.
+     */
+    @Bean
+    public String[] roleReplicaPartitions(ConsumerFactory<Object, Object> consumerFactory,
+                                          @Value("${guest.role-replica.topic:organization-role-changed}") String topic) {
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic);
+            if (partitions.isEmpty()) {
+                throw new IllegalStateException("Role replica topic " + topic + " does not exist");
+            }
+            return partitions.stream().map(partition -> Integer.toString(partition.partition())).toArray(String[]::new);
+        }
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> roleReplicaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
@@ -0,0 +1,85 @@
+package com.planify.guest.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Singleton HTTP client for user-service. Connections are pooled and kept alive between
+ * authorization checks, so TCP and TLS setup is paid once per connection instead of per call.
+ */
+@Configuration
+public class UserServiceClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager userServiceConnectionManager(
+            @Value("${user.service.http.max-connections:50}") int maxConnections,
+            @Value("${user.service.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${user.service.http.read-timeout:3s}") Duration readTimeout,
+            @Value("${user.service.http.connection-time-to-live:5m}") Duration timeToLive) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                // user-service is a single route, so the whole pool may be used for it
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient userServiceHttpClient(
+            PoolingHttpClientConnectionManager userServiceConnectionManager,
+            @Value("${user.service.http.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+            @Value("${user.service.http.read-timeout:3s}") Duration readTimeout,
+            @Value("${user.service.http.idle-timeout:30s}") Duration idleTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(userServiceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate userServiceRestTemplate(
+            RestTemplateBuilder restTemplateBuilder,
+            CloseableHttpClient userServiceHttpClient,
+            @Value("${user.service.base-url:http://localhost:8082}") String userServiceBaseUrl) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(userServiceHttpClient))
+                .rootUri(StringUtils.trimTrailingCharacter(userServiceBaseUrl, '/'))
+                .build();
+    }
+
+    /**
+     * Publishes httpcomponents.httpclient.pool.* gauges (leased, available, pending, max)
+     * tagged httpclient=user-service.
+     */
+    @Bean
+    public MeterBinder userServiceConnectionPoolMetrics(PoolingHttpClientConnectionManager userServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(userServiceConnectionManager, "user-service");
+    }
+}
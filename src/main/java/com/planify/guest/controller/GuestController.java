@@ -1,8 +1,20 @@
 package com.planify.guest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.dto.BulkRsvpRequest;
+import com.planify.guest.dto.BulkRsvpResult;
+import com.planify.guest.dto.DeadLetterReplayResult;
+import com.planify.guest.dto.InvitationInbox;
+import com.planify.guest.dto.InvitationPage;
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.dto.RsvpChange;
+import com.planify.guest.event.DeadLetterReplayer;
 import com.planify.guest.service.SecurityService;
+import com.planify.guest.model.EventRsvpSummary;
 import com.planify.guest.model.Invitation;
 import com.planify.guest.service.GuestService;
+import com.planify.guest.service.RsvpStreamHub;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,12 +25,19 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Slf4j
 @RestController
@@ -30,23 +49,51 @@ public class GuestController {
     
     private final GuestService guestService;
     private final SecurityService securityService;
+    private final ObjectMapper objectMapper;
+    private final DeadLetterReplayer deadLetterReplayer;
+    private final RsvpStreamHub rsvpStreamHub;
     
     // Guest Perspective
     @GetMapping("/my-invitations")
     @Operation(
         summary = "Get my invitations",
-        description = "Returns all event invitations for the authenticated user, including pending, accepted, and declined invitations."
+        description = "Returns all event invitations for the authenticated user, including pending, accepted, and declined invitations. Send the returned ETag in If-None-Match to get 304 while nothing changed."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved invitations",
-                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Invitation.class))),
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = InvitationView.class))),
+        @ApiResponse(responseCode = "304", description = "Not modified - Invitations match the If-None-Match ETag", content = @Content),
         @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token", content = @Content),
     })
     @PreAuthorize("hasAnyRole('UPORABNIK')")
-    public ResponseEntity<List<Invitation>> getMyInvitations(
+    public ResponseEntity<List<InvitationView>> getMyInvitations(
         @Parameter(required = true)
         @RequestParam UUID userId) {
-        return ResponseEntity.ok(guestService.getMyInvitations(userId));
+        return inbox(guestService.getMyInvitations(userId));
+    }
+    
+    @GetMapping("/my-invitations/page")
+    @Operation(
+        summary = "Get my invitations (keyset paginated)",
+        description = "Returns one page of the authenticated user's invitations ordered by time received. Pass the returned nextCursor to fetch the following page; nextCursor is null on the last page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved invitations page",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = InvitationPage.class))),
+        @ApiResponse(responseCode = "400", description = "Bad request - Malformed cursor", content = @Content),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token", content = @Content),
+    })
+    @PreAuthorize("hasAnyRole('UPORABNIK')")
+    public ResponseEntity<?> getMyInvitationsPage(
+            @Parameter(required = true)
+            @RequestParam UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(guestService.getMyInvitationsPage(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor.");
+        }
     }
     
     @GetMapping("/my-invitations/{eventId}")
@@ -56,12 +103,12 @@ public class GuestController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved invitation",
-                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Invitation.class))),
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = InvitationView.class))),
         @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token", content = @Content),
         @ApiResponse(responseCode = "403", description = "Forbidden - User does not have permission to view invitations for this event", content = @Content)
     })
     @PreAuthorize("hasAnyRole('ORG_ADMIN', 'ORGANISER')")
-    public ResponseEntity<Invitation> getMyInvitation(
+    public ResponseEntity<InvitationView> getMyInvitation(
             @Parameter(required = true)
             @PathVariable UUID eventId,
             @Parameter(required = true)
@@ -78,18 +125,19 @@ public class GuestController {
     @GetMapping("/my-events")
     @Operation(
         summary = "Get my accepted events",
-        description = "Returns all events where the user has accepted the invitation (RSVP status: ACCEPTED)."
+        description = "Returns all events where the user has accepted the invitation (RSVP status: ACCEPTED). Send the returned ETag in If-None-Match to get 304 while nothing changed."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved accepted events",
-                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Invitation.class))),
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = InvitationView.class))),
+        @ApiResponse(responseCode = "304", description = "Not modified - Accepted events match the If-None-Match ETag", content = @Content),
         @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token", content = @Content),
     })
     @PreAuthorize("hasAnyRole('UPORABNIK')")
-    public ResponseEntity<List<Invitation>> getMyAcceptedEvents(
+    public ResponseEntity<List<InvitationView>> getMyAcceptedEvents(
             @Parameter(required = true)
             @RequestParam UUID userId) {
-        return ResponseEntity.ok(guestService.getMyAcceptedEvents(userId));
+        return inbox(guestService.getMyAcceptedEvents(userId));
     }
     
     // RSVP Actions
@@ -144,6 +192,34 @@ public class GuestController {
         }
     }
     
+    @PutMapping("/rsvps/bulk")
+    @Operation(
+        summary = "Apply RSVP responses in bulk",
+        description = "Sets the RSVP status of up to 10000 invitations of one organization in a single transaction, e.g. from a check-in kiosk or a CSV import. Returns one result per item in request order: UPDATED, UNCHANGED (already had that status) or NOT_FOUND. Changed responses publish the same 'rsvp-accepted' and 'rsvp-declined' Kafka events as the single endpoints. Requires organization admin or organizer role in the organization."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Responses applied",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkRsvpResult.class))),
+        @ApiResponse(responseCode = "400", description = "Bad request - Empty or oversized request, incomplete item or PENDING status", content = @Content),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token", content = @Content),
+        @ApiResponse(responseCode = "403", description = "Forbidden - User does not manage this organization", content = @Content)
+    })
+    @PreAuthorize("hasAnyRole('ORG_ADMIN', 'ORGANISER')")
+    public ResponseEntity<?> respondInBulk(
+            @Parameter(required = true)
+            @RequestParam UUID orgId,
+            @RequestBody BulkRsvpRequest request) {
+        if (!securityService.hasAnyRoleInOrganization(orgId, List.of("ORG_ADMIN", "ORGANISER"))) {
+            log.warn("User does not have permission to apply bulk RSVP in organization {}", orgId);
+            return ResponseEntity.status(403).build();
+        }
+        try {
+            return ResponseEntity.ok(guestService.respondInBulk(orgId, request.items()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     // Internal API (for event-manager-service)
     @GetMapping("/internal/events/{eventId}/invitations")
     @Operation(
@@ -152,11 +228,176 @@ public class GuestController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved event invitations",
-                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Invitation.class)))
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = InvitationView.class)))
     })
-    public ResponseEntity<List<Invitation>> getEventInvitations(
+    public ResponseEntity<List<InvitationView>> getEventInvitations(
             @Parameter(required = true)
             @PathVariable UUID eventId) {
         return ResponseEntity.ok(guestService.getEventInvitations(eventId));
     }
+    
+    @GetMapping("/internal/events/{eventId}/rsvp-summary")
+    @Operation(
+        summary = "Get event RSVP summary (internal API)",
+        description = "Returns pending, accepted, declined and maybe counts for an event from the materialised summary, without scanning its invitations."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved RSVP summary",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = EventRsvpSummary.class)))
+    })
+    public ResponseEntity<EventRsvpSummary> getEventRsvpSummary(
+            @Parameter(required = true)
+            @PathVariable UUID eventId) {
+        return ResponseEntity.ok(guestService.getEventRsvpSummary(eventId));
+    }
+    
+    @GetMapping(value = "/internal/events/{eventId}/rsvp-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream RSVP changes of an event (internal API)",
+        description = "Server-Sent Events stream that pushes an 'rsvp' event with the previous and new status whenever a guest's answer to the event commits. Load the RSVP summary first; changes made before connecting or while disconnected are not replayed. Idle streams receive a heartbeat comment."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "RSVP change stream",
+                content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = RsvpChange.class))),
+        @ApiResponse(responseCode = "503", description = "Service unavailable - Too many streams open on this instance", content = @Content)
+    })
+    public ResponseEntity<SseEmitter> streamRsvpChanges(
+            @Parameter(required = true)
+            @PathVariable UUID eventId) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(rsvpStreamHub.subscribe(eventId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+    
+    @GetMapping("/internal/events/{eventId}/invitations/page")
+    @Operation(
+        summary = "Get event invitations page (internal API)",
+        description = "Returns one keyset page of invitations for an event ordered by time received. Pass the returned nextCursor to fetch the following page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved event invitations page",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = InvitationPage.class))),
+        @ApiResponse(responseCode = "400", description = "Bad request - Malformed cursor", content = @Content)
+    })
+    public ResponseEntity<?> getEventInvitationsPage(
+            @Parameter(required = true)
+            @PathVariable UUID eventId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(guestService.getEventInvitationsPage(eventId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor.");
+        }
+    }
+    
+    @GetMapping(value = "/internal/events/{eventId}/invitations/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream event invitations (internal API)",
+        description = "Streams all invitations for an event as newline-delimited JSON, written while rows are read from the database."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Invitation stream",
+                content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = InvitationView.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamEventInvitations(
+            @Parameter(required = true)
+            @PathVariable UUID eventId) {
+        return ndjson(sink -> guestService.streamEventInvitations(eventId, sink));
+    }
+    
+    @GetMapping("/internal/organizations/{organizationId}/invitations/page")
+    @Operation(
+        summary = "Get organization invitations page (internal API)",
+        description = "Returns one keyset page of invitations for an organization ordered by time received. Pass the returned nextCursor to fetch the following page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved organization invitations page",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = InvitationPage.class))),
+        @ApiResponse(responseCode = "400", description = "Bad request - Malformed cursor", content = @Content)
+    })
+    public ResponseEntity<?> getInvitationsByOrganizationPage(
+            @Parameter(required = true)
+            @PathVariable UUID organizationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(guestService.getInvitationsByOrganizationPage(organizationId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor.");
+        }
+    }
+    
+    @GetMapping(value = "/internal/organizations/{organizationId}/invitations/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream organization invitations (internal API)",
+        description = "Streams all invitations for an organization as newline-delimited JSON, written while rows are read from the database."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Invitation stream",
+                content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = InvitationView.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamInvitationsByOrganization(
+            @Parameter(required = true)
+            @PathVariable UUID organizationId) {
+        return ndjson(sink -> guestService.streamInvitationsByOrganization(organizationId, sink));
+    }
+    
+    // Administration
+    @PostMapping("/admin/dead-letters/{topic}/replay")
+    @Operation(
+        summary = "Replay dead-lettered Kafka records",
+        description = "Moves up to 'limit' records of the topic's dead-letter topic (guest-invited, guest-removed or event-deleted) back to its retry topic, at most 'ratePerSecond' per second, and returns when they were sent. Their retry count starts from zero. Requires administrator role."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Records replayed",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = DeadLetterReplayResult.class))),
+        @ApiResponse(responseCode = "400", description = "Bad request - Unknown topic, or non-positive limit or rate", content = @Content),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Conflict - Another replay is running", content = @Content)
+    })
+    @PreAuthorize("hasAnyRole('ADMINISTRATOR')")
+    public ResponseEntity<?> replayDeadLetters(
+            @Parameter(required = true)
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(defaultValue = "50") int ratePerSecond) {
+        try {
+            return ResponseEntity.ok(new DeadLetterReplayResult(topic, deadLetterReplayer.replay(topic, limit, ratePerSecond)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+    
+    // MVC answers 304 itself when If-None-Match matches the ETag; clients must revalidate every time
+    private ResponseEntity<List<InvitationView>> inbox(InvitationInbox inbox) {
+        return ResponseEntity.ok()
+                .eTag(inbox.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(inbox.invitations());
+    }
+    
+    // Writes one JSON document per line as the source produces invitations
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<InvitationView>> source) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                source.accept(invitation -> {
+                    try {
+                        generator.writeObject(invitation);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
\ No newline at end of file
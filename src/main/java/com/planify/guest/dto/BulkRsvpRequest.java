@@ -0,0 +1,15 @@
+package com.planify.guest.dto;
+
+import com.planify.guest.model.Invitation;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Many RSVP responses of one organization's guests, e.g. from a check-in kiosk or a CSV import.
+ */
+public record BulkRsvpRequest(List<Item> items) {
+
+    public record Item(UUID eventId, UUID userId, Invitation.RsvpStatus status) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.planify.guest.dto;
+
+import com.planify.guest.model.Invitation;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a bulk RSVP request. {@code previousStatus} and {@code status} are
+ * null when the invitation was not found.
+ */
+public record BulkRsvpResult(UUID eventId,
+                             UUID userId,
+                             Outcome outcome,
+                             Invitation.RsvpStatus previousStatus,
+                             Invitation.RsvpStatus status) {
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,8 @@
+package com.planify.guest.dto;
+
+/**
+ * Outcome of a dead-letter replay: how many records of {@code topic}'s dead-letter topic were
+ * moved back to its retry topic.
+ */
+public record DeadLetterReplayResult(String topic, int replayed) {
+}
@@ -0,0 +1,50 @@
+package com.planify.guest.dto;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Seek position in an invitation listing ordered by (invitation_received_at, id).
+ * Clients receive it as an opaque URL-safe token.
+ */
+public record InvitationCursor(LocalDateTime invitationReceivedAt, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static InvitationCursor of(InvitationView invitation) {
+        return new InvitationCursor(invitation.invitationReceivedAt(), invitation.id());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static InvitationCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed invitation cursor");
+        }
+        try {
+            return new InvitationCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed invitation cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = invitationReceivedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public KeysetScrollPosition toScrollPosition() {
+        return ScrollPosition.forward(Map.of("invitationReceivedAt", invitationReceivedAt, "id", id));
+    }
+}
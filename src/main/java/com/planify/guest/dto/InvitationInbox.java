@@ -0,0 +1,30 @@
+package com.planify.guest.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * A user's invitation listing together with its entity tag. The tag is derived from the
+ * content only, so every instance computes the same tag for the same invitations and a
+ * client's {@code If-None-Match} stays valid whichever instance answers.
+ */
+public record InvitationInbox(List<InvitationView> invitations, String etag) {
+
+    public static InvitationInbox of(List<InvitationView> invitations) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (InvitationView invitation : invitations) {
+            digest.update(invitation.toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        String etag = HexFormat.of().formatHex(digest.digest(), 0, 16);
+        return new InvitationInbox(List.copyOf(invitations), etag);
+    }
+}
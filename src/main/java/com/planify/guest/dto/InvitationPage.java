@@ -0,0 +1,9 @@
+package com.planify.guest.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of invitations. {@code nextCursor} is null on the last page.
+ */
+public record InvitationPage(List<InvitationView> items, String nextCursor) {
+}
@@ -0,0 +1,20 @@
+package com.planify.guest.dto;
+
+import com.planify.guest.model.Invitation;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only copy of an invitation, with the same JSON shape as {@link Invitation}. Read
+ * endpoints load it with a constructor projection, so rows are never attached to the
+ * persistence context and no entity snapshot is kept for dirty checking.
+ */
+public record InvitationView(UUID id,
+                             UUID eventId,
+                             UUID userId,
+                             UUID organizationId,
+                             Invitation.RsvpStatus rsvpStatus,
+                             LocalDateTime respondedAt,
+                             LocalDateTime invitationReceivedAt) {
+}
@@ -0,0 +1,17 @@
+package com.planify.guest.dto;
+
+import com.planify.guest.model.Invitation;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A committed RSVP answer, as pushed to the event's RSVP stream. {@code previousStatus} is the
+ * answer it replaced.
+ */
+public record RsvpChange(UUID eventId,
+                         UUID userId,
+                         Invitation.RsvpStatus previousStatus,
+                         Invitation.RsvpStatus status,
+                         LocalDateTime changedAt) {
+}
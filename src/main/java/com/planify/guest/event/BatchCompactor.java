@@ -0,0 +1,148 @@
+package com.planify.guest.event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Folds the guest-invited, guest-removed and event-deleted records of one poll into the fewest
+ * writes with the same net effect.
+ *
+ * Records are taken in timestamp order, so an invitation and its removal on different topics
+ * are seen in the order they were produced. Within one partition the offset order is kept even
+ * if a timestamp goes backwards. The fold works like this:
+ * <ul>
+ *     <li>An event-deleted supersedes every earlier record of its event, including earlier
+ *     deletions.</li>
+ *     <li>For one (eventId, userId), the last record decides. A removal wins over the invitations
+ *     before it, and repeated invitations collapse into the first.</li>
+ *     <li>An invitation after a removal is kept as removal plus invitation, so an existing
+ *     answer is reset to PENDING as it would be one record at a time. After a deletion there
+ *     is nothing to remove, so the removal is dropped.</li>
+ * </ul>
+ * The result is applied as deletions, then removals, then invitations.
+ */
+final class BatchCompactor {
+
+    private BatchCompactor() {
+    }
+
+    static Compacted compact(List<Polled> polled) {
+        Map<UUID, Map<UUID, Folded>> byEvent = new LinkedHashMap<>();
+        Map<UUID, EventDeleted> deletions = new LinkedHashMap<>();
+        Map<String, Integer> avoided = new HashMap<>();
+
+        for (Polled record : inProducedOrder(polled)) {
+            switch (record.event()) {
+                case EventDeleted deleted -> {
+                    Map<UUID, Folded> superseded = byEvent.put(deleted.eventId(), new LinkedHashMap<>());
+                    if (superseded != null) {
+                        superseded.values().forEach(folded -> folded.avoidAll(avoided));
+                    }
+                    if (deletions.putIfAbsent(deleted.eventId(), deleted) != null) {
+                        avoided.merge(record.topic(), 1, Integer::sum);
+                    }
+                }
+                case GuestInvited invited -> folded(byEvent, invited.eventId(), invited.userId()).invite(invited);
+                case GuestRemoved removed -> folded(byEvent, removed.eventId(), removed.userId()).remove(removed);
+            }
+        }
+
+        List<GuestRemoved> removals = new ArrayList<>();
+        List<GuestInvited> invites = new ArrayList<>();
+        byEvent.forEach((eventId, users) -> {
+            // After a deletion in this poll there is no invitation left to remove
+            boolean deleted = deletions.containsKey(eventId);
+            users.values().forEach(folded -> {
+                boolean removalWritten = folded.removal != null && !deleted;
+                if (removalWritten) {
+                    removals.add(folded.removal);
+                }
+                if (folded.invite != null) {
+                    invites.add(folded.invite);
+                }
+                folded.avoidUnwritten(avoided, removalWritten);
+            });
+        });
+        return new Compacted(List.copyOf(deletions.values()), removals, invites, avoided);
+    }
+
+    private static Folded folded(Map<UUID, Map<UUID, Folded>> byEvent, UUID eventId, UUID userId) {
+        return byEvent.computeIfAbsent(eventId, e -> new LinkedHashMap<>())
+                .computeIfAbsent(userId, u -> new Folded());
+    }
+
+    // Sorts by timestamp, raised to the partition's highest so far so offsets never swap places
+    static List<Polled> inProducedOrder(List<Polled> polled) {
+        Map<String, Long> latest = new HashMap<>();
+        List<Ordered> ordered = new ArrayList<>(polled.size());
+        for (Polled record : polled) {
+            long timestamp = latest.merge(record.topic() + "-" + record.partition(), record.timestamp(), Math::max);
+            ordered.add(new Ordered(timestamp, record));
+        }
+        ordered.sort(Comparator.comparingLong(Ordered::timestamp).thenComparingInt(o -> o.record().index()));
+        return ordered.stream().map(Ordered::record).toList();
+    }
+
+    /**
+     * A decoded record and its position in the poll.
+     */
+    record Polled(int index, String topic, int partition, long timestamp, GuestEvent event) {
+    }
+
+    /**
+     * The writes left after folding, and the number of records per topic that need none.
+     */
+    record Compacted(List<EventDeleted> deletions, List<GuestRemoved> removals, List<GuestInvited> invites,
+                     Map<String, Integer> avoided) {
+
+        int writes() {
+            return deletions.size() + removals.size() + invites.size();
+        }
+    }
+
+    private record Ordered(long timestamp, Polled record) {
+    }
+
+    // Net effect of the records of one (eventId, userId) since the last deletion of the event
+    private static final class Folded {
+
+        private GuestRemoved removal;
+        private GuestInvited invite;
+        private int removals;
+        private int invites;
+
+        void invite(GuestInvited invited) {
+            invites++;
+            if (invite == null) {
+                invite = invited;
+            }
+        }
+
+        void remove(GuestRemoved removed) {
+            removals++;
+            removal = removed;
+            invite = null;
+        }
+
+        void avoidUnwritten(Map<String, Integer> avoided, boolean removalWritten) {
+            avoid(avoided, "guest-invited", invites - (invite != null ? 1 : 0));
+            avoid(avoided, "guest-removed", removals - (removalWritten ? 1 : 0));
+        }
+
+        void avoidAll(Map<String, Integer> avoided) {
+            avoid(avoided, "guest-invited", invites);
+            avoid(avoided, "guest-removed", removals);
+        }
+
+        private static void avoid(Map<String, Integer> avoided, String topic, int count) {
+            if (count > 0) {
+                avoided.merge(topic, count, Integer::sum);
+            }
+        }
+    }
+}
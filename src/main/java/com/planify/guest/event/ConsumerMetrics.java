@@ -0,0 +1,104 @@
+package com.planify.guest.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings and lag of the guest topic listeners, all tagged by topic:
+ * guest.kafka.consume.decode per record, guest.kafka.consume.handler per service call (one per
+ * batch for guest-invited, one per record otherwise) and guest.kafka.consume.latency from the
+ * record's timestamp until its handler committed. guest.kafka.consumer.lag is the lag of every
+ * partition this instance holds, also tagged by partition, as of the last poll.
+ * guest.kafka.compaction.avoided counts records whose write was folded away by
+ * {@link BatchCompactor}.
+ */
+class ConsumerMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> decodeTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> handlerTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> avoidedWrites = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionLag> lags = new ConcurrentHashMap<>();
+
+    ConsumerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void decoded(String topic, long startNanos) {
+        decodeTimers.computeIfAbsent(topic, t -> Timer.builder("guest.kafka.consume.decode")
+                        .description("Time to decode one consumed record")
+                        .tag("topic", t)
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void handled(String topic, long startNanos) {
+        handlerTimers.computeIfAbsent(topic, t -> Timer.builder("guest.kafka.consume.handler")
+                        .description("Time spent in the service, including its database transaction")
+                        .tag("topic", t)
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void completed(String topic, long recordTimestamp) {
+        latencyTimers.computeIfAbsent(topic, t -> Timer.builder("guest.kafka.consume.latency")
+                        .description("Time from the record's timestamp until its change was committed")
+                        .tag("topic", t)
+                        .register(meterRegistry))
+                .record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - recordTimestamp)));
+    }
+
+    void avoided(String topic, int records) {
+        avoidedWrites.computeIfAbsent(topic, t -> Counter.builder("guest.kafka.compaction.avoided")
+                        .description("Consumed records whose write was superseded within the same poll")
+                        .tag("topic", t)
+                        .register(meterRegistry))
+                .increment(records);
+    }
+
+    // currentLag uses the high watermark of the last fetch, so this does not call the broker
+    void recordLag(Consumer<?, ?> consumer) {
+        for (TopicPartition partition : consumer.assignment()) {
+            OptionalLong lag = consumer.currentLag(partition);
+            if (lag.isPresent()) {
+                lags.computeIfAbsent(partition, this::registerLag).value().set(lag.getAsLong());
+            }
+        }
+    }
+
+    // A revoked partition is reported by the instance that takes it over
+    void forget(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionLag lag = lags.remove(partition);
+            if (lag != null) {
+                meterRegistry.remove(lag.gauge());
+            }
+        }
+    }
+
+    private PartitionLag registerLag(TopicPartition partition) {
+        AtomicLong value = new AtomicLong();
+        Gauge gauge = Gauge.builder("guest.kafka.consumer.lag", value, AtomicLong::get)
+                .description("Records behind the end of the partition as of the last poll")
+                .tag("topic", partition.topic())
+                .tag("partition", String.valueOf(partition.partition()))
+                .register(meterRegistry);
+        return new PartitionLag(value, gauge);
+    }
+
+    private record PartitionLag(AtomicLong value, Gauge gauge) {
+    }
+}
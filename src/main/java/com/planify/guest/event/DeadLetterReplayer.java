@@ -0,0 +1,161 @@
+package com.planify.guest.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves records from a dead-letter topic back to its retry topic, e.g. after the cause of a
+ * failure was fixed.
+ *
+ * The replay reads with a consumer group of its own and commits what it moved, so the next
+ * replay continues where the previous one stopped. It stops at the end offsets it saw when it
+ * started, so records that fail again during the replay are left for the next one. Records are
+ * sent at no more than the requested rate. They go to the retry topic rather than the source
+ * topic, so a replay never competes with live traffic for the source partitions, and their
+ * retry count starts from zero. Only one replay runs at a time.
+ */
+@Slf4j
+public class DeadLetterReplayer {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String groupId;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DeadLetterReplayer(ConsumerFactory<Object, Object> consumerFactory,
+                              KafkaTemplate<String, byte[]> kafkaTemplate,
+                              MeterRegistry meterRegistry,
+                              String groupId) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.groupId = groupId;
+    }
+
+    /**
+     * Replays up to {@code limit} records of the topic's dead-letter topic.
+     *
+     * @param topic one of {@link DeadLetterRouting#TOPICS}
+     * @return the number of records replayed
+     * @throws IllegalArgumentException for an unknown topic or a non-positive limit or rate
+     * @throws IllegalStateException when another replay is running
+     */
+    public int replay(String topic, int limit, int ratePerSecond) {
+        if (!DeadLetterRouting.TOPICS.contains(topic)) {
+            throw new IllegalArgumentException("Unknown topic: " + topic);
+        }
+        if (limit <= 0 || ratePerSecond <= 0) {
+            throw new IllegalArgumentException("limit and ratePerSecond must be positive");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A dead-letter replay is already running");
+        }
+        try {
+            int replayed = replay(DeadLetterRouting.deadLetterTopic(topic), DeadLetterRouting.retryTopic(topic),
+                    limit, TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+            log.info("Replayed {} records from {} to {}", replayed, DeadLetterRouting.deadLetterTopic(topic),
+                    DeadLetterRouting.retryTopic(topic));
+            return replayed;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int replay(String deadLetterTopic, String retryTopic, int limit, long intervalNanos) {
+        Counter replayedCounter = Counter.builder("guest.kafka.dead-letter.replayed")
+                .description("Dead-letter records moved back to the retry topic")
+                .tag("topic", deadLetterTopic)
+                .register(meterRegistry);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(limit, 500)));
+
+        int replayed = 0;
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer(groupId, null, null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(deadLetterTopic).stream()
+                    .map(info -> new TopicPartition(deadLetterTopic, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            long nextSend = System.nanoTime();
+
+            while (replayed < limit && !caughtUp(consumer, endOffsets)) {
+                ConsumerRecords<Object, Object> records = consumer.poll(POLL_TIMEOUT);
+                List<CompletableFuture<?>> sends = new ArrayList<>(records.count());
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<Object, Object> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (replayed == limit || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    nextSend = pace(nextSend, intervalNanos);
+                    sends.add(kafkaTemplate.send(new ProducerRecord<>(retryTopic, null,
+                            (String) record.key(), (byte[]) record.value(), replayHeaders(record.headers()))));
+                    offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                // Commit only what the broker acknowledged; a failed send leaves it in the DLT
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+                consumer.commitSync(offsets);
+                replayedCounter.increment(sends.size());
+            }
+        }
+        return replayed;
+    }
+
+    private static boolean caughtUp(Consumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    // Sleeps until the next send slot and returns the one after it
+    private static long pace(long nextSend, long intervalNanos) {
+        long wait = nextSend - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+            return nextSend + intervalNanos;
+        }
+        return System.nanoTime() + intervalNanos;
+    }
+
+    // Keeps the failure headers for diagnosis and restarts the retry count
+    private static Headers replayHeaders(Headers original) {
+        Headers headers = new RecordHeaders();
+        for (Header header : original) {
+            if (!header.key().equals(DeadLetterRouting.ATTEMPT_HEADER) && !header.key().equals(DeadLetterRouting.DUE_HEADER)) {
+                headers.add(header);
+            }
+        }
+        headers.add(DeadLetterRouting.DUE_HEADER, "0".getBytes(StandardCharsets.US_ASCII));
+        return headers;
+    }
+}
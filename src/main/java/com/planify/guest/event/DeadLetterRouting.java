@@ -0,0 +1,183 @@
+package com.planify.guest.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Where a record that failed in a guest listener goes next.
+ *
+ * Each consumed topic has a retry topic ({@code <topic>-retry}) and a dead-letter topic
+ * ({@code <topic>-dlt}). A failed record is republished to the retry topic and handled again
+ * once guest.kafka.retry.delay has passed, without holding up its source partition. After
+ * guest.kafka.retry.attempts failed retries it goes to the dead-letter topic. Malformed payloads
+ * go there right away, because a retry cannot fix them. Database and other errors are retried.
+ *
+ * The attempt count and the time a retry is due travel in record headers. Every routed record
+ * is counted in guest.kafka.dead-letter tagged by topic, failure and destination, and logged as
+ * a single line without a stack trace.
+ */
+@Component
+@Slf4j
+public class DeadLetterRouting {
+
+    public static final List<String> TOPICS = List.of("guest-invited", "guest-removed", "event-deleted");
+
+    static final String ATTEMPT_HEADER = "guest-retry-attempt";
+    static final String DUE_HEADER = "guest-retry-due";
+
+    private static final String RETRY_SUFFIX = "-retry";
+    private static final String DEAD_LETTER_SUFFIX = "-dlt";
+
+    private final MeterRegistry meterRegistry;
+    private final int attempts;
+    private final Duration delay;
+
+    public DeadLetterRouting(MeterRegistry meterRegistry,
+                             @Value("${guest.kafka.retry.attempts:3}") int attempts,
+                             @Value("${guest.kafka.retry.delay:30s}") Duration delay) {
+        if (attempts < 0) {
+            throw new IllegalArgumentException("guest.kafka.retry.attempts must not be negative");
+        }
+        this.meterRegistry = meterRegistry;
+        this.attempts = attempts;
+        this.delay = delay;
+    }
+
+    public static String retryTopic(String topic) {
+        return topic + RETRY_SUFFIX;
+    }
+
+    public static String deadLetterTopic(String topic) {
+        return topic + DEAD_LETTER_SUFFIX;
+    }
+
+    /**
+     * The consumed topic behind a topic, retry topic or dead-letter topic, or null when it is
+     * not one of ours.
+     */
+    public static String sourceTopic(String topic) {
+        String source = topic;
+        if (topic.endsWith(RETRY_SUFFIX)) {
+            source = topic.substring(0, topic.length() - RETRY_SUFFIX.length());
+        } else if (topic.endsWith(DEAD_LETTER_SUFFIX)) {
+            source = topic.substring(0, topic.length() - DEAD_LETTER_SUFFIX.length());
+        }
+        return TOPICS.contains(source) ? source : null;
+    }
+
+    // For the retry listener's topics attribute
+    public String[] retryTopics() {
+        return TOPICS.stream().map(DeadLetterRouting::retryTopic).toArray(String[]::new);
+    }
+
+    /**
+     * Destination resolver for {@link DeadLetterPublishingRecoverer}. A negative partition lets
+     * the producer pick one by key, so retry and dead-letter topics need not match the source
+     * partition count.
+     */
+    public TopicPartition destination(ConsumerRecord<?, ?> record, Exception exception) {
+        String source = sourceTopic(record.topic());
+        if (source == null) {
+            return null;
+        }
+        Failure failure = classify(exception);
+        int attempt = attempt(record);
+        String destination = failure == Failure.PARSE || attempt >= attempts
+                ? deadLetterTopic(source)
+                : retryTopic(source);
+        Counter.builder("guest.kafka.dead-letter")
+                .description("Failed records republished to a retry or dead-letter topic")
+                .tag("topic", source)
+                .tag("failure", failure.tag)
+                .tag("destination", destination.endsWith(DEAD_LETTER_SUFFIX) ? "dlt" : "retry")
+                .register(meterRegistry)
+                .increment();
+        log.warn("Routing {}-{}@{} to {} after {} retries: {}", record.topic(), record.partition(), record.offset(),
+                destination, attempt, rootCause(exception));
+        return new TopicPartition(destination, -1);
+    }
+
+    /**
+     * Headers function for {@link DeadLetterPublishingRecoverer}: a record headed for the retry
+     * topic carries its next attempt number and the time it becomes due.
+     */
+    public Headers headers(ConsumerRecord<?, ?> record, Exception exception) {
+        Headers headers = new RecordHeaders();
+        if (sourceTopic(record.topic()) != null && classify(exception) != Failure.PARSE) {
+            headers.add(new DeadLetterPublishingRecoverer.SingleRecordHeader(ATTEMPT_HEADER,
+                    ascii(attempt(record) + 1)));
+            headers.add(new DeadLetterPublishingRecoverer.SingleRecordHeader(DUE_HEADER,
+                    ascii(System.currentTimeMillis() + delay.toMillis())));
+        }
+        return headers;
+    }
+
+    /**
+     * How long a record read from a retry topic must still wait; zero or negative when due.
+     */
+    public Duration remainingDelay(ConsumerRecord<?, ?> record) {
+        Header due = record.headers().lastHeader(DUE_HEADER);
+        long dueMillis = due == null ? record.timestamp() + delay.toMillis() : parse(due);
+        return Duration.ofMillis(dueMillis - System.currentTimeMillis());
+    }
+
+    static Failure classify(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MalformedPayloadException) {
+                return Failure.PARSE;
+            }
+            if (cause instanceof DataAccessException || cause instanceof TransactionException
+                    || cause instanceof SQLException) {
+                return Failure.DATABASE;
+            }
+        }
+        return Failure.OTHER;
+    }
+
+    private static int attempt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(ATTEMPT_HEADER);
+        return header == null ? 0 : (int) parse(header);
+    }
+
+    private static String rootCause(Throwable exception) {
+        Throwable root = exception;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.toString();
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static long parse(Header header) {
+        return Long.parseLong(new String(header.value(), StandardCharsets.US_ASCII));
+    }
+
+    enum Failure {
+        PARSE("parse"), DATABASE("database"), OTHER("other");
+
+        private final String tag;
+
+        Failure(String tag) {
+            this.tag = tag;
+        }
+    }
+}
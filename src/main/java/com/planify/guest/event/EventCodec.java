@@ -0,0 +1,59 @@
+package com.planify.guest.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * JSON codecs for the Kafka payloads.
+ *
+ * Readers and writers are built once per type, which also resolves their (de)serializers up
+ * front, and are thread-safe. Incoming records are bound straight from the raw record bytes to
+ * the event records, without an intermediate String or JsonNode tree. Unknown properties such
+ * as the producer's timestamp are ignored.
+ */
+public final class EventCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final ObjectReader GUEST_INVITED_READER = MAPPER.readerFor(GuestInvited.class);
+    private static final ObjectReader GUEST_REMOVED_READER = MAPPER.readerFor(GuestRemoved.class);
+    private static final ObjectReader EVENT_DELETED_READER = MAPPER.readerFor(EventDeleted.class);
+    private static final ObjectReader ORGANIZATION_ROLE_CHANGED_READER = MAPPER.readerFor(OrganizationRoleChanged.class);
+    private static final ObjectWriter RSVP_CHANGED_WRITER = MAPPER.writerFor(RsvpChanged.class);
+
+    private EventCodec() {
+    }
+
+    /**
+     * @throws IOException if the payload is not valid JSON or a required id is missing or malformed
+     */
+    public static GuestInvited decodeGuestInvited(byte[] payload) throws IOException {
+        return GUEST_INVITED_READER.readValue(payload);
+    }
+
+    public static GuestRemoved decodeGuestRemoved(byte[] payload) throws IOException {
+        return GUEST_REMOVED_READER.readValue(payload);
+    }
+
+    public static EventDeleted decodeEventDeleted(byte[] payload) throws IOException {
+        return EVENT_DELETED_READER.readValue(payload);
+    }
+
+    public static OrganizationRoleChanged decodeOrganizationRoleChanged(byte[] payload) throws IOException {
+        return ORGANIZATION_ROLE_CHANGED_READER.readValue(payload);
+    }
+
+    public static String encode(RsvpChanged event) throws JsonProcessingException {
+        return RSVP_CHANGED_WRITER.writeValueAsString(event);
+    }
+}
@@ -0,0 +1,14 @@
+package com.planify.guest.event;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Payload of the event-deleted topic published by event-manager-service.
+ */
+public record EventDeleted(UUID eventId) implements GuestEvent {
+
+    public EventDeleted {
+        Objects.requireNonNull(eventId, "eventId");
+    }
+}
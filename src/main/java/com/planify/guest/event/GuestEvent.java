@@ -0,0 +1,11 @@
+package com.planify.guest.event;
+
+import java.util.UUID;
+
+/**
+ * Payload of one of the consumed guest topics; each concerns a single event.
+ */
+public sealed interface GuestEvent permits GuestInvited, GuestRemoved, EventDeleted {
+
+    UUID eventId();
+}
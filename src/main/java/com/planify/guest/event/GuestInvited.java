@@ -0,0 +1,16 @@
+package com.planify.guest.event;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Payload of the guest-invited topic published by event-manager-service.
+ */
+public record GuestInvited(UUID eventId, UUID userId, UUID organizationId) implements GuestEvent {
+
+    public GuestInvited {
+        Objects.requireNonNull(eventId, "eventId");
+        Objects.requireNonNull(userId, "userId");
+        Objects.requireNonNull(organizationId, "organizationId");
+    }
+}
@@ -0,0 +1,15 @@
+package com.planify.guest.event;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Payload of the guest-removed topic published by event-manager-service.
+ */
+public record GuestRemoved(UUID eventId, UUID userId) implements GuestEvent {
+
+    public GuestRemoved {
+        Objects.requireNonNull(eventId, "eventId");
+        Objects.requireNonNull(userId, "userId");
+    }
+}
@@ -1,62 +1,416 @@
 package com.planify.guest.event;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.event.BatchCompactor.Compacted;
+import com.planify.guest.event.BatchCompactor.Polled;
 import com.planify.guest.service.GuestService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 
+/**
+ * All three listeners consume in batch mode, with one consumer thread per
+ * guest.kafka.*.concurrency. That value should match the topic's partition count, because extra
+ * consumers stay idle.
+ *
+ * With guest.kafka.key-ordered-shards above zero, each poll is split by eventId across that many
+ * worker threads and runs in parallel. Records of one event keep their order because they stay
+ * on one worker, and the listener waits for all workers before returning. If a record fails, the
+ * listener throws {@link BatchListenerFailedException} at the lowest failed index. The error
+ * handler then commits only the contiguous prefix of completed records, hands the failed record
+ * to {@link DeadLetterRouting} and redelivers the rest. Replaying records that already completed
+ * is harmless, because every handler is idempotent. A malformed payload fails the poll at its
+ * index the same way, and only the records before it are handled.
+ *
+ * With guest.kafka.compaction.enabled (the default), the three topics are consumed by one
+ * listener instead, and each poll is folded by {@link BatchCompactor} before anything is written.
+ * The per-topic listeners are then not started.
+ *
+ * Decode time, service time, end-to-end latency and partition lag are published through
+ * {@link ConsumerMetrics}.
+ */
 @Component
 @Slf4j
-@RequiredArgsConstructor
-public class KafkaConsumer {
-    
+public class KafkaConsumer implements ConsumerSeekAware {
+
     private final GuestService guestService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    @KafkaListener(topics = "guest-invited", groupId = "${spring.application.name}")
-    public void consumeGuestInvited(String message) {
-        try {
-            JsonNode json = objectMapper.readTree(message);
-            UUID eventId = UUID.fromString(json.get("eventId").asText());
-            UUID userId = UUID.fromString(json.get("userId").asText());
-            UUID organizationId = UUID.fromString(json.get("organizationId").asText());
-            
-            guestService.handleGuestInvited(eventId, userId, organizationId);
-            log.info("Processed guest-invited: user {} invited to event {} in org {}", userId, eventId, organizationId);
-        } catch (Exception e) {
-            log.error("Error processing guest-invited: {}", e.getMessage(), e);
-        }
-    }
-    
-    @KafkaListener(topics = "guest-removed", groupId = "${spring.application.name}")
-    public void consumeGuestRemoved(String message) {
+    private final ConsumerMetrics metrics;
+    private final KeyOrderedExecutor keyOrdered;
+
+    public KafkaConsumer(GuestService guestService,
+                         MeterRegistry meterRegistry,
+                         @Value("${guest.kafka.key-ordered-shards:0}") int keyOrderedShards) {
+        this.guestService = guestService;
+        this.metrics = new ConsumerMetrics(meterRegistry);
+        this.keyOrdered = keyOrderedShards > 0 ? new KeyOrderedExecutor("kafka-key-ordered", keyOrderedShards) : null;
+    }
+
+    @PreDestroy
+    void close() {
+        if (keyOrdered != null) {
+            keyOrdered.close();
+        }
+    }
+
+    /**
+     * Consumes guest-invited in batch mode: every record of a poll is decoded first and then
+     * written with one multi-row insert (one per worker when key-ordered). Batch size and linger
+     * are tuned through the guest.kafka.guest-invited.* properties. Values arrive as raw bytes
+     * (ByteArrayDeserializer) and are bound directly to the event records by {@link EventCodec}.
+     */
+    @KafkaListener(
+            id = "guest-invited",
+            topics = "guest-invited",
+            groupId = "${spring.application.name}",
+            containerFactory = "guestEventListenerContainerFactory",
+            batch = "true",
+            autoStartup = "#{!${guest.kafka.compaction.enabled:true}}",
+            concurrency = "${guest.kafka.guest-invited.concurrency:1}",
+            properties = {
+                    "max.poll.records=${guest.kafka.guest-invited.batch-size:500}",
+                    "fetch.min.bytes=${guest.kafka.guest-invited.fetch-min-bytes:16384}",
+                    "fetch.max.wait.ms=${guest.kafka.guest-invited.linger-ms:100}"
+            })
+    public void consumeGuestInvited(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        handleGuestInvited(records);
+        metrics.recordLag(consumer);
+    }
+
+    @KafkaListener(
+            id = "guest-removed",
+            topics = "guest-removed",
+            groupId = "${spring.application.name}",
+            containerFactory = "guestEventListenerContainerFactory",
+            batch = "true",
+            autoStartup = "#{!${guest.kafka.compaction.enabled:true}}",
+            concurrency = "${guest.kafka.guest-removed.concurrency:1}")
+    public void consumeGuestRemoved(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        handleGuestRemoved(records);
+        metrics.recordLag(consumer);
+    }
+
+    @KafkaListener(
+            id = "event-deleted",
+            topics = "event-deleted",
+            groupId = "${spring.application.name}",
+            containerFactory = "guestEventListenerContainerFactory",
+            batch = "true",
+            autoStartup = "#{!${guest.kafka.compaction.enabled:true}}",
+            concurrency = "${guest.kafka.event-deleted.concurrency:1}")
+    public void consumeEventDeleted(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        handleEventDeleted(records);
+        metrics.recordLag(consumer);
+    }
+
+    /**
+     * Consumes all three topics in one container, so that an invitation and its removal or the
+     * deletion of its event can meet in one poll. The poll is folded by {@link BatchCompactor} and
+     * only the net writes reach the service: deletions and removals one by one, invitations with
+     * one multi-row insert, per eventId shard when key-ordered. If any of them fails, the poll is
+     * handled again one record at a time in the order the records were produced, and the failure is
+     * reported at the record that failed, so only that record is recovered. Every handler is
+     * idempotent, so the writes that already went through are harmless to repeat. The guest.kafka.guest-invited.* poll settings apply here too.
+     */
+    @KafkaListener(
+            id = "guest-events",
+            topics = {"guest-invited", "guest-removed", "event-deleted"},
+            groupId = "${spring.application.name}",
+            containerFactory = "guestEventListenerContainerFactory",
+            batch = "true",
+            autoStartup = "${guest.kafka.compaction.enabled:true}",
+            concurrency = "${guest.kafka.compaction.concurrency:1}",
+            properties = {
+                    "max.poll.records=${guest.kafka.guest-invited.batch-size:500}",
+                    "fetch.min.bytes=${guest.kafka.guest-invited.fetch-min-bytes:16384}",
+                    "fetch.max.wait.ms=${guest.kafka.guest-invited.linger-ms:100}"
+            })
+    public void consumeGuestEvents(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        handleCompacted(records);
+        metrics.recordLag(consumer);
+    }
+
+    /**
+     * A quiet partition delivers no batches; idle events (spring.kafka.listener.idle-event-interval)
+     * still refresh its lag.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('guest-invited') "
+            + "or event.listenerId.startsWith('guest-removed') or event.listenerId.startsWith('event-deleted') "
+            + "or event.listenerId.startsWith('guest-events')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        metrics.recordLag(event.getConsumer());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        metrics.forget(partitions);
+    }
+
+    /**
+     * Handles records of one of the consumed topics, as if they had been polled from it; used by
+     * {@link KafkaRetryConsumer} for records read back from a retry topic.
+     */
+    void process(String topic, List<ConsumerRecord<String, byte[]>> records) {
+        switch (topic) {
+            case "guest-invited" -> handleGuestInvited(records);
+            case "guest-removed" -> handleGuestRemoved(records);
+            case "event-deleted" -> handleEventDeleted(records);
+            default -> throw new IllegalArgumentException("Not a consumed topic: " + topic);
+        }
+    }
+
+    private void handleGuestInvited(List<ConsumerRecord<String, byte[]>> records) {
+        Decoded<GuestInvited> invites = decode("guest-invited", records, EventCodec::decodeGuestInvited);
+        dispatch("guest-invited", invites, GuestInvited::eventId, group -> {
+            List<GuestInvited> batch = group.stream().map(Indexed::value).toList();
+            long start = System.nanoTime();
+            try {
+                int created = guestService.handleGuestInvitedBatch(batch);
+                log.info("Processed guest-invited batch: {} records, {} invitations created", batch.size(), created);
+            } catch (RuntimeException e) {
+                return new Failure(group.getFirst().index(), e);
+            } finally {
+                metrics.handled("guest-invited", start);
+            }
+            group.forEach(record -> completed("guest-invited", record.timestamp()));
+            return null;
+        });
+    }
+
+    private void handleGuestRemoved(List<ConsumerRecord<String, byte[]>> records) {
+        Decoded<GuestRemoved> removals = decode("guest-removed", records, EventCodec::decodeGuestRemoved);
+        dispatch("guest-removed", removals, GuestRemoved::eventId, group -> forEach("guest-removed", group, removed -> {
+            guestService.handleGuestRemoved(removed.eventId(), removed.userId());
+            log.info("Processed guest-removed: user {} removed from event {}", removed.userId(), removed.eventId());
+        }));
+    }
+
+    private void handleEventDeleted(List<ConsumerRecord<String, byte[]>> records) {
+        Decoded<EventDeleted> deletions = decode("event-deleted", records, EventCodec::decodeEventDeleted);
+        dispatch("event-deleted", deletions, EventDeleted::eventId, group -> forEach("event-deleted", group, deleted -> {
+            guestService.handleEventDeleted(deleted.eventId());
+            log.info("Processed event-deleted: deleted all invitations for event {}", deleted.eventId());
+        }));
+    }
+
+    private void handleCompacted(List<ConsumerRecord<String, byte[]>> records) {
+        List<Polled> polled = new ArrayList<>(records.size());
+        Failure malformed = null;
+        for (int i = 0; i < records.size() && malformed == null; i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            long start = System.nanoTime();
+            try {
+                GuestEvent event = switch (record.topic()) {
+                    case "guest-invited" -> EventCodec.decodeGuestInvited(record.value());
+                    case "guest-removed" -> EventCodec.decodeGuestRemoved(record.value());
+                    case "event-deleted" -> EventCodec.decodeEventDeleted(record.value());
+                    default -> throw new IllegalArgumentException("Not a consumed topic: " + record.topic());
+                };
+                metrics.decoded(record.topic(), start);
+                polled.add(new Polled(i, record.topic(), record.partition(), record.timestamp(), event));
+            } catch (Exception e) {
+                malformed = new Failure(i, new MalformedPayloadException(record.topic(), e));
+            }
+        }
+
+        Compacted compacted = BatchCompactor.compact(polled);
+        Failure failure = malformed;
+        if (applyCompacted(compacted)) {
+            compacted.avoided().forEach(metrics::avoided);
+            polled.forEach(record -> completed(record.topic(), record.timestamp()));
+            log.info("Processed guest events: {} records, {} writes", polled.size(), compacted.writes());
+        } else {
+            failure = handleOneByOne(polled, malformed);
+        }
+        if (failure != null) {
+            log.debug("Failed guest events record {} of the poll: {}", failure.index(), failure.cause().toString());
+            throw new BatchListenerFailedException("Failed to process guest events", failure.cause(), failure.index());
+        }
+    }
+
+    // Returns false when any write failed; the shards that succeeded have committed theirs
+    private boolean applyCompacted(Compacted compacted) {
+        List<GuestEvent> writes = new ArrayList<>(compacted.writes());
+        writes.addAll(compacted.deletions());
+        writes.addAll(compacted.removals());
+        writes.addAll(compacted.invites());
+        if (writes.isEmpty()) {
+            return true;
+        }
+        List<RuntimeException> failures = keyOrdered == null
+                ? Collections.singletonList(applyWrites(writes))
+                : keyOrdered.invokeAll(writes, GuestEvent::eventId, this::applyWrites);
+        RuntimeException failure = failures.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        if (failure != null) {
+            log.debug("Compacted guest events failed, handling the poll record by record: {}", failure.toString());
+            return false;
+        }
+        return true;
+    }
+
+    // Deletions and removals one by one, then all invitations with one insert
+    private RuntimeException applyWrites(List<GuestEvent> writes) {
+        List<GuestInvited> invites = new ArrayList<>();
         try {
-            JsonNode json = objectMapper.readTree(message);
-            UUID eventId = UUID.fromString(json.get("eventId").asText());
-            UUID userId = UUID.fromString(json.get("userId").asText());
-            
-            guestService.handleGuestRemoved(eventId, userId);
-            log.info("Processed guest-removed: user {} removed from event {}", userId, eventId);
-        } catch (Exception e) {
-            log.error("Error processing guest-removed: {}", e.getMessage(), e);
-        }
-    }
-    
-    @KafkaListener(topics = "event-deleted", groupId = "${spring.application.name}")
-    public void consumeEventDeleted(String message) {
+            for (GuestEvent write : writes) {
+                if (write instanceof GuestInvited invited) {
+                    invites.add(invited);
+                } else {
+                    handle(write);
+                }
+            }
+            if (!invites.isEmpty()) {
+                long start = System.nanoTime();
+                try {
+                    guestService.handleGuestInvitedBatch(invites);
+                } finally {
+                    metrics.handled("guest-invited", start);
+                }
+            }
+        } catch (RuntimeException e) {
+            return e;
+        }
+        return null;
+    }
+
+    // Replays the poll one record at a time in the order the fold used, so that a removal listed
+    // before an earlier invitation still ends removed. The failure is reported at the index of the
+    // record that failed, which alone goes to the recoverer. Records polled before it are committed,
+    // so they are still applied after the failure; records polled after it are redelivered, so
+    // they are skipped. A failure of an earlier polled record takes over the report.
+    private Failure handleOneByOne(List<Polled> polled, Failure malformed) {
+        Failure failure = malformed;
+        for (Polled record : BatchCompactor.inProducedOrder(polled)) {
+            if (failure != null && record.index() > failure.index()) {
+                continue;
+            }
+            try {
+                handle(record.event());
+                completed(record.topic(), record.timestamp());
+            } catch (RuntimeException e) {
+                failure = new Failure(record.index(), e);
+            }
+        }
+        return failure;
+    }
+
+    private void handle(GuestEvent event) {
+        long start = System.nanoTime();
         try {
-            JsonNode json = objectMapper.readTree(message);
-            UUID eventId = UUID.fromString(json.get("eventId").asText());
-            
-            guestService.handleEventDeleted(eventId);
-            log.info("Processed event-deleted: deleted all invitations for event {}", eventId);
-        } catch (Exception e) {
-            log.error("Error processing event-deleted: {}", e.getMessage(), e);
+            switch (event) {
+                case GuestInvited invited -> guestService.handleGuestInvitedBatch(List.of(invited));
+                case GuestRemoved removed -> guestService.handleGuestRemoved(removed.eventId(), removed.userId());
+                case EventDeleted deleted -> guestService.handleEventDeleted(deleted.eventId());
+            }
+        } finally {
+            metrics.handled(topicOf(event), start);
+        }
+    }
+
+    private static String topicOf(GuestEvent event) {
+        return switch (event) {
+            case GuestInvited invited -> "guest-invited";
+            case GuestRemoved removed -> "guest-removed";
+            case EventDeleted deleted -> "event-deleted";
+        };
+    }
+
+    // Decodes up to the first malformed payload; records after it are redelivered anyway.
+    // Only records read from the topic itself carry a timestamp for the latency timer; a retried
+    // record's timestamp is that of its republication.
+    private <T> Decoded<T> decode(String topic, List<ConsumerRecord<String, byte[]>> records, Decoder<T> decoder) {
+        List<Indexed<T>> decoded = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            long start = System.nanoTime();
+            try {
+                T value = decoder.decode(record.value());
+                metrics.decoded(topic, start);
+                long timestamp = topic.equals(record.topic()) ? record.timestamp() : ConsumerRecord.NO_TIMESTAMP;
+                decoded.add(new Indexed<>(i, value, timestamp));
+            } catch (Exception e) {
+                return new Decoded<>(decoded, new Failure(i, new MalformedPayloadException(topic, e)));
+            }
+        }
+        return new Decoded<>(decoded, null);
+    }
+
+    // Runs work on the listener thread, or once per eventId shard, and fails the batch at the
+    // first record that did not complete; work returns null when its whole group completed
+    private <T> void dispatch(String topic, Decoded<T> batch, Function<T, UUID> eventId,
+                              Function<List<Indexed<T>>, Failure> work) {
+        List<Indexed<T>> records = batch.records();
+        List<Failure> failures = new ArrayList<>();
+        failures.add(batch.malformed());
+        if (!records.isEmpty()) {
+            failures.addAll(keyOrdered == null
+                    ? Collections.singletonList(work.apply(records))
+                    : keyOrdered.invokeAll(records, record -> eventId.apply(record.value()), work));
+        }
+        Failure first = failures.stream()
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(Failure::index))
+                .orElse(null);
+        if (first != null) {
+            // DeadLetterRouting logs the failure once the error handler routed the record
+            log.debug("Failed {} record {} of the poll: {}", topic, first.index(), first.cause().toString());
+            throw new BatchListenerFailedException("Failed to process " + topic, first.cause(), first.index());
+        }
+    }
+
+    // Handles records one by one and stops at the first failure, so later records of the same
+    // event never run ahead of it
+    private <T> Failure forEach(String topic, List<Indexed<T>> group, java.util.function.Consumer<T> handler) {
+        for (Indexed<T> record : group) {
+            long start = System.nanoTime();
+            try {
+                handler.accept(record.value());
+            } catch (RuntimeException e) {
+                return new Failure(record.index(), e);
+            } finally {
+                metrics.handled(topic, start);
+            }
+            completed(topic, record.timestamp());
+        }
+        return null;
+    }
+
+    private void completed(String topic, long timestamp) {
+        if (timestamp != ConsumerRecord.NO_TIMESTAMP) {
+            metrics.completed(topic, timestamp);
         }
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(byte[] message) throws Exception;
+    }
+
+    // A decoded record, its position in the poll and its timestamp
+    private record Indexed<T>(int index, T value, long timestamp) {
+    }
+
+    // The decodable prefix of a poll, and the malformed record that ended it
+    private record Decoded<T>(List<Indexed<T>> records, Failure malformed) {
+    }
+
+    private record Failure(int index, RuntimeException cause) {
+    }
+}
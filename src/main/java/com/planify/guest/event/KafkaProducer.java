@@ -1,19 +1,110 @@
 package com.planify.guest.event;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyed, asynchronous Kafka sends with backpressure.
+ *
+ * Every send holds one permit until the broker acknowledges or rejects it. When all permits
+ * are taken the caller waits up to the permit timeout and then gets a failed future, so a
+ * slow broker throttles the relay instead of filling the producer buffer.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class KafkaProducer {
-    
+
     private final KafkaTemplate<String, String> kafkaTemplate;
-    
-    public void sendMessage(String topic, String message) {
-        log.info("Sending message to topic {}: {}", topic, message);
-        kafkaTemplate.send(topic, message);
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlightPermits;
+    private final int maxInFlight;
+    private final Duration permitTimeout;
+    private final Map<String, Timer> publishTimers = new ConcurrentHashMap<>();
+
+    public KafkaProducer(KafkaTemplate<String, String> kafkaTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${guest.kafka.producer.max-in-flight:1000}") int maxInFlight,
+                         @Value("${guest.kafka.producer.permit-timeout:5s}") Duration permitTimeout) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("guest.kafka.producer.max-in-flight must be positive");
+        }
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.permitTimeout = permitTimeout;
+        meterRegistry.gauge("guest.kafka.publish.in-flight", inFlightPermits,
+                permits -> maxInFlight - permits.availablePermits());
+    }
+
+    /**
+     * Sends a keyed record. The returned future completes when the broker acknowledges it, or
+     * fails if the send was rejected, failed, or no permit became free within the timeout.
+     */
+    public CompletableFuture<SendResult<String, String>> send(String topic, String key, String message) {
+        if (!acquirePermit()) {
+            recordFailure(topic, "backpressure");
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "No Kafka send permit within " + permitTimeout + " (" + maxInFlight + " sends in flight)"));
+        }
+
+        log.debug("Sending record to topic {} with key {}", topic, key);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<SendResult<String, String>> future;
+        try {
+            future = kafkaTemplate.send(topic, key, message);
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            recordFailure(topic, e.getClass().getSimpleName());
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((result, error) -> {
+            inFlightPermits.release();
+            sample.stop(publishTimer(topic));
+            if (error != null) {
+                recordFailure(topic, error.getClass().getSimpleName());
+                log.warn("Send to topic {} with key {} failed: {}", topic, key, error.getMessage());
+            }
+        });
+    }
+
+    private boolean acquirePermit() {
+        try {
+            return inFlightPermits.tryAcquire(permitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Timer publishTimer(String topic) {
+        return publishTimers.computeIfAbsent(topic, t -> Timer.builder("guest.kafka.publish")
+                .description("Time from send until the broker acknowledged or rejected the record")
+                .tag("topic", t)
+                .register(meterRegistry));
+    }
+
+    private void recordFailure(String topic, String reason) {
+        Counter.builder("guest.kafka.publish.failures")
+                .description("Records that could not be published")
+                .tag("topic", topic)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
     }
-}
\ No newline at end of file
+}
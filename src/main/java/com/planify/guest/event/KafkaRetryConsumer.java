@@ -0,0 +1,49 @@
+package com.planify.guest.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Handles records republished to the retry topics once they are due.
+ *
+ * A record that is not due yet is not acknowledged. The listener seeks back to it and pauses
+ * its consumer for the remaining delay, so waiting costs no thread and never blocks the main
+ * topics, which have containers of their own. Records on one retry topic become due in the order
+ * they were written, because they all wait the same guest.kafka.retry.delay. A failure here goes
+ * through {@link DeadLetterRouting} again, to the retry topic or the dead-letter topic.
+ */
+@Component
+@Slf4j
+public class KafkaRetryConsumer {
+
+    private final KafkaConsumer kafkaConsumer;
+    private final DeadLetterRouting deadLetterRouting;
+
+    public KafkaRetryConsumer(KafkaConsumer kafkaConsumer, DeadLetterRouting deadLetterRouting) {
+        this.kafkaConsumer = kafkaConsumer;
+        this.deadLetterRouting = deadLetterRouting;
+    }
+
+    @KafkaListener(
+            id = "guest-retry",
+            topics = "#{@deadLetterRouting.retryTopics()}",
+            groupId = "${spring.application.name}",
+            containerFactory = "guestRetryListenerContainerFactory")
+    public void consumeRetry(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        Duration remaining = deadLetterRouting.remainingDelay(record);
+        if (remaining.isPositive()) {
+            acknowledgment.nack(remaining);
+            return;
+        }
+        String topic = DeadLetterRouting.sourceTopic(record.topic());
+        log.debug("Retrying {}-{}@{}", record.topic(), record.partition(), record.offset());
+        kafkaConsumer.process(topic, List.of(record));
+        acknowledgment.acknowledge();
+    }
+}
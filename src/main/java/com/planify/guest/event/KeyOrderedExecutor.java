@@ -0,0 +1,70 @@
+package com.planify.guest.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Fixed set of single-threaded shards. Items with the same key always land on the same shard
+ * and are handled there in their original order; different shards run in parallel.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final List<ExecutorService> shards;
+
+    public KeyOrderedExecutor(String name, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(Executors.newSingleThreadExecutor(Thread.ofPlatform().name(name + "-" + i).factory()));
+        }
+    }
+
+    public int shardOf(Object key) {
+        return Math.floorMod(key.hashCode(), shards.size());
+    }
+
+    /**
+     * Splits {@code items} by shard, keeping their relative order, runs {@code work} once per
+     * non-empty shard and waits for all of them.
+     *
+     * @return the results of {@code work}, in shard order
+     */
+    public <T, R> List<R> invokeAll(List<T> items, Function<T, ?> key, Function<List<T>, R> work) {
+        List<List<T>> groups = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            groups.get(shardOf(key.apply(item))).add(item);
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            List<T> group = groups.get(i);
+            if (!group.isEmpty()) {
+                futures.add(CompletableFuture.supplyAsync(() -> work.apply(group), shards.get(i)));
+            }
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(ExecutorService::shutdown);
+        for (ExecutorService shard : shards) {
+            try {
+                shard.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.planify.guest.event;
+
+/**
+ * A consumed payload that {@link EventCodec} could not decode. Retrying cannot fix it, so the
+ * record goes straight to the dead-letter topic.
+ */
+public class MalformedPayloadException extends RuntimeException {
+
+    public MalformedPayloadException(String topic, Throwable cause) {
+        super("Malformed " + topic + " payload: " + cause.getMessage(), cause);
+    }
+}
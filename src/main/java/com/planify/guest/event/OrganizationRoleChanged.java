@@ -0,0 +1,19 @@
+package com.planify.guest.event;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Payload of the organization role membership topic published by user-service: the complete
+ * set of roles {@code subject} now holds in the organization. An empty set means the user
+ * left the organization.
+ */
+public record OrganizationRoleChanged(String subject, UUID organizationId, Set<String> roles) {
+
+    public OrganizationRoleChanged {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(organizationId, "organizationId");
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+    }
+}
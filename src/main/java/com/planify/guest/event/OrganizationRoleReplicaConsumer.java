@@ -0,0 +1,140 @@
+package com.planify.guest.event;
+
+import com.planify.guest.service.OrganizationRoleStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Feeds {@link OrganizationRoleStore} from the role membership topic.
+ *
+ * Every instance needs the whole topic, so the listener assigns itself every partition (see
+ * {@link com.planify.guest.config.RoleReplicaKafkaConfig}) and never commits offsets: on start it
+ * seeks to the offsets of the on-disk snapshot when one was restored, and to the beginning of
+ * the topic otherwise. The snapshot is
+ * rewritten periodically and on shutdown, which keeps restarts from replaying the full topic.
+ */
+@Component
+@ConditionalOnProperty(name = "guest.role-replica.enabled", havingValue = "true")
+@Slf4j
+public class OrganizationRoleReplicaConsumer implements ConsumerSeekAware {
+
+    private final OrganizationRoleStore roleStore;
+    private final String topic;
+    private final Path snapshotPath;
+
+    public OrganizationRoleReplicaConsumer(OrganizationRoleStore roleStore,
+                                           @Value("${guest.role-replica.topic:organization-role-changed}") String topic,
+                                           @Value("${guest.role-replica.snapshot-path:}") String snapshotPath) {
+        this.roleStore = roleStore;
+        this.topic = topic;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    }
+
+    @PostConstruct
+    void restoreSnapshot() {
+        if (snapshotPath != null && !roleStore.loadSnapshot(snapshotPath, topic)) {
+            log.info("No role replica snapshot restored, replaying {} from the beginning", topic);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            OptionalLong offset = roleStore.nextOffset(partition.partition());
+            if (offset.isPresent()) {
+                callback.seek(partition.topic(), partition.partition(), offset.getAsLong());
+            } else {
+                callback.seekToBeginning(List.of(partition));
+            }
+        }
+    }
+
+    @KafkaListener(
+            id = "organization-role-replica",
+            topicPartitions = @org.springframework.kafka.annotation.TopicPartition(
+                    topic = "${guest.role-replica.topic:organization-role-changed}",
+                    partitions = "#{@roleReplicaPartitions}"),
+            idIsGroup = false,
+            containerFactory = "roleReplicaListenerContainerFactory",
+            batch = "true")
+    public void consume(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            roleStore.apply(record.partition(), record.offset(), decode(record));
+        }
+        recordLag(consumer);
+    }
+
+    /**
+     * A quiet topic delivers no batches; idle events (spring.kafka.listener.idle-event-interval)
+     * still report the lag, so a replica restored from an up-to-date snapshot becomes ready.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('organization-role-replica')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        recordLag(event.getConsumer());
+    }
+
+    @Scheduled(
+            initialDelayString = "${guest.role-replica.snapshot-interval:PT5M}",
+            fixedDelayString = "${guest.role-replica.snapshot-interval:PT5M}")
+    public void writeSnapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+        try {
+            roleStore.writeSnapshot(snapshotPath, topic);
+            log.debug("Wrote role replica snapshot {} ({} subjects)", snapshotPath, roleStore.subjectCount());
+        } catch (IOException e) {
+            log.warn("Could not write role replica snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+
+    private OrganizationRoleChanged decode(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            return null;
+        }
+        try {
+            return EventCodec.decodeOrganizationRoleChanged(record.value());
+        } catch (Exception e) {
+            log.error("Skipping undecodable role change at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return null;
+        }
+    }
+
+    // currentLag uses the high watermark of the last fetch, so this does not call the broker
+    private void recordLag(Consumer<?, ?> consumer) {
+        long lag = 0;
+        for (TopicPartition partition : consumer.assignment()) {
+            OptionalLong partitionLag = consumer.currentLag(partition);
+            if (partitionLag.isEmpty()) {
+                return;
+            }
+            lag += partitionLag.getAsLong();
+        }
+        roleStore.recordLag(lag, Instant.now());
+    }
+}
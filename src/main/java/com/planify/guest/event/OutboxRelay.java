@@ -0,0 +1,129 @@
+package com.planify.guest.event;
+
+import com.planify.guest.model.OutboxMessage;
+import com.planify.guest.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox messages to Kafka.
+ *
+ * Each batch is locked with FOR UPDATE SKIP LOCKED, so replicas drain disjoint batches in
+ * parallel. All records of a batch are handed to the producer at once and the rows are
+ * deleted only after every send was acknowledged; if any send fails the transaction rolls
+ * back and the whole batch is retried on the next poll. Delivery is therefore at least once,
+ * and ordering per event holds within a batch but not across replicas.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaProducer kafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Counter relayedMessages;
+    private final Counter relayFailures;
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaProducer kafkaProducer,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${guest.outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${guest.outbox.relay.send-timeout:30s}") Duration sendTimeout) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("guest.outbox.relay.batch-size must be positive");
+        }
+        this.outboxRepository = outboxRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.relayedMessages = Counter.builder("guest.outbox.relayed")
+                .description("Outbox messages published and removed from the outbox")
+                .register(meterRegistry);
+        this.relayFailures = Counter.builder("guest.outbox.relay.failures")
+                .description("Outbox batches rolled back because a send failed")
+                .register(meterRegistry);
+        meterRegistry.gauge("guest.outbox.depth", depth);
+        TimeGauge.builder("guest.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                .description("Age of the oldest message waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drains the outbox batch by batch until a batch comes back short or a send fails.
+     */
+    @Scheduled(fixedDelayString = "${guest.outbox.relay.poll-interval:PT0.5S}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            relayFailures.increment();
+            log.warn("Outbox relay batch failed, retrying on next poll: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${guest.outbox.metrics-interval:PT10S}")
+    public void refreshMetrics() {
+        depth.set(outboxRepository.count());
+        lagMillis.set(outboxRepository.findOldestCreatedAt()
+                .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()))
+                .orElse(0L));
+    }
+
+    private int relayBatch() {
+        List<OutboxMessage> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            sends.add(kafkaProducer.send(message.getTopic(), message.getMessageKey(), message.getPayload()));
+        }
+        awaitAcknowledgements(sends);
+
+        outboxRepository.deleteByIdIn(batch.stream().map(OutboxMessage::getId).toList());
+        relayedMessages.increment(batch.size());
+        log.debug("Relayed {} outbox messages", batch.size());
+        return batch.size();
+    }
+
+    private void awaitAcknowledgements(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acknowledgements", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Kafka send failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch within " + sendTimeout, e);
+        }
+    }
+}
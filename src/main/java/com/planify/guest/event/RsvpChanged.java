@@ -0,0 +1,11 @@
+package com.planify.guest.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payload of the rsvp-accepted and rsvp-declined topics. {@code wasAccepted} tells consumers
+ * whether the guest had accepted before this change.
+ */
+public record RsvpChanged(UUID eventId, UUID userId, boolean wasAccepted, LocalDateTime timestamp) {
+}
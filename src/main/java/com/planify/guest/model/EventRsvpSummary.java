@@ -0,0 +1,49 @@
+package com.planify.guest.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "event_rsvp_summary")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventRsvpSummary {
+    
+    @Id
+    @Column(name = "event_id")
+    private UUID eventId;
+    
+    @Column(name = "pending_count", nullable = false)
+    private int pendingCount;
+    
+    @Column(name = "accepted_count", nullable = false)
+    private int acceptedCount;
+    
+    @Column(name = "declined_count", nullable = false)
+    private int declinedCount;
+    
+    @Column(name = "maybe_count", nullable = false)
+    private int maybeCount;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public int getTotalCount() {
+        return pendingCount + acceptedCount + declinedCount + maybeCount;
+    }
+    
+    public static EventRsvpSummary empty(UUID eventId) {
+        return EventRsvpSummary.builder()
+            .eventId(eventId)
+            .updatedAt(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.planify.guest.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "topic", nullable = false)
+    private String topic;
+    
+    @Column(name = "message_key")
+    private String messageKey;
+    
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
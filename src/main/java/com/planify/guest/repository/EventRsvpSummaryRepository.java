@@ -0,0 +1,36 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.model.EventRsvpSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface EventRsvpSummaryRepository extends JpaRepository<EventRsvpSummary, UUID>, EventRsvpSummaryRepositoryCustom {
+    
+    // Adds the deltas to the event's counters in place, creating the row on first use
+    @Modifying
+    @Query(value = """
+            INSERT INTO event_rsvp_summary (event_id, pending_count, accepted_count, declined_count, maybe_count, updated_at)
+            VALUES (:eventId, :pending, :accepted, :declined, :maybe, now())
+            ON CONFLICT (event_id) DO UPDATE SET
+                pending_count = event_rsvp_summary.pending_count + EXCLUDED.pending_count,
+                accepted_count = event_rsvp_summary.accepted_count + EXCLUDED.accepted_count,
+                declined_count = event_rsvp_summary.declined_count + EXCLUDED.declined_count,
+                maybe_count = event_rsvp_summary.maybe_count + EXCLUDED.maybe_count,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void applyDelta(@Param("eventId") UUID eventId,
+                    @Param("pending") int pending,
+                    @Param("accepted") int accepted,
+                    @Param("declined") int declined,
+                    @Param("maybe") int maybe);
+    
+    @Modifying
+    @Query(value = "DELETE FROM event_rsvp_summary WHERE event_id = :eventId", nativeQuery = true)
+    int deleteByEventId(@Param("eventId") UUID eventId);
+}
@@ -0,0 +1,42 @@
+package com.planify.guest.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based maintenance of the RSVP counters.
+ */
+public interface EventRsvpSummaryRepositoryCustom {
+
+    /**
+     * Adds newly created PENDING invitations to the counters of several events with one statement.
+     */
+    void addPending(Map<UUID, Integer> createdPerEvent);
+
+    /**
+     * Applies counter deltas to several events with one statement.
+     */
+    void applyDeltas(Map<UUID, RsvpDelta> deltasPerEvent);
+
+    /**
+     * Recomputes every event's counters from the invitations table and adds the difference to
+     * the rows that differ, so RSVP changes committed meanwhile are kept. Does nothing and returns
+     * an empty list when another instance holds the reconciliation lock, because two runs would
+     * add the same difference twice.
+     *
+     * @return ids of the events whose stored counters had drifted
+     */
+    List<UUID> reconcile();
+
+    /**
+     * Relative change of one event's counters.
+     */
+    record RsvpDelta(int pending, int accepted, int declined, int maybe) {
+
+        public RsvpDelta plus(RsvpDelta other) {
+            return new RsvpDelta(pending + other.pending, accepted + other.accepted,
+                    declined + other.declined, maybe + other.maybe);
+        }
+    }
+}
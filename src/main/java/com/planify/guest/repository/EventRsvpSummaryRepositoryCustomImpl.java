@@ -0,0 +1,170 @@
+package com.planify.guest.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class EventRsvpSummaryRepositoryCustomImpl implements EventRsvpSummaryRepositoryCustom {
+
+    // Arbitrary constant identifying the reconciliation job's transaction-scoped advisory lock
+    private static final long RECONCILIATION_LOCK_KEY = 0x6775657374_01L;
+
+    private static final String ADD_PENDING = """
+            INSERT INTO event_rsvp_summary (event_id, pending_count, updated_at)
+            SELECT t.event_id, t.created, now()
+            FROM unnest(?::uuid[], ?::int[]) AS t(event_id, created)
+            ON CONFLICT (event_id) DO UPDATE SET
+                pending_count = event_rsvp_summary.pending_count + EXCLUDED.pending_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String APPLY_DELTAS = """
+            INSERT INTO event_rsvp_summary (event_id, pending_count, accepted_count, declined_count, maybe_count, updated_at)
+            SELECT t.event_id, t.pending, t.accepted, t.declined, t.maybe, now()
+            FROM unnest(?::uuid[], ?::int[], ?::int[], ?::int[], ?::int[]) AS t(event_id, pending, accepted, declined, maybe)
+            ON CONFLICT (event_id) DO UPDATE SET
+                pending_count = event_rsvp_summary.pending_count + EXCLUDED.pending_count,
+                accepted_count = event_rsvp_summary.accepted_count + EXCLUDED.accepted_count,
+                declined_count = event_rsvp_summary.declined_count + EXCLUDED.declined_count,
+                maybe_count = event_rsvp_summary.maybe_count + EXCLUDED.maybe_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String TRY_RECONCILIATION_LOCK = "SELECT pg_try_advisory_xact_lock(?)";
+
+    // Drift is the difference between the invitations table and the stored counters, both read
+    // from this statement's snapshot, and it is added rather than written over the counters. An
+    // RSVP delta that commits after the snapshot therefore adds up with it instead of being lost,
+    // and neither side fails. Stored rows are locked in event_id order like the delta upserts;
+    // a row deleted meanwhile stays deleted. Summaries of events without invitations drop to zero.
+    private static final String RECONCILE = """
+            WITH actual AS (
+                SELECT event_id,
+                       count(*) FILTER (WHERE rsvp_status = 'PENDING') AS pending_count,
+                       count(*) FILTER (WHERE rsvp_status = 'ACCEPTED') AS accepted_count,
+                       count(*) FILTER (WHERE rsvp_status = 'DECLINED') AS declined_count,
+                       count(*) FILTER (WHERE rsvp_status = 'MAYBE') AS maybe_count
+                FROM invitations
+                GROUP BY event_id
+            ),
+            drift AS (
+                SELECT coalesce(a.event_id, s.event_id) AS event_id,
+                       s.event_id IS NOT NULL AS stored,
+                       coalesce(a.pending_count, 0) - coalesce(s.pending_count, 0) AS pending,
+                       coalesce(a.accepted_count, 0) - coalesce(s.accepted_count, 0) AS accepted,
+                       coalesce(a.declined_count, 0) - coalesce(s.declined_count, 0) AS declined,
+                       coalesce(a.maybe_count, 0) - coalesce(s.maybe_count, 0) AS maybe
+                FROM actual a
+                FULL JOIN event_rsvp_summary s ON s.event_id = a.event_id
+                WHERE (s.pending_count, s.accepted_count, s.declined_count, s.maybe_count)
+                      IS DISTINCT FROM (coalesce(a.pending_count, 0), coalesce(a.accepted_count, 0),
+                                        coalesce(a.declined_count, 0), coalesce(a.maybe_count, 0))
+            ),
+            locked AS (
+                SELECT s.event_id
+                FROM event_rsvp_summary s
+                JOIN drift d ON d.event_id = s.event_id AND d.stored
+                ORDER BY s.event_id
+                FOR UPDATE OF s
+            ),
+            updated AS (
+                UPDATE event_rsvp_summary s SET
+                    pending_count = s.pending_count + d.pending,
+                    accepted_count = s.accepted_count + d.accepted,
+                    declined_count = s.declined_count + d.declined,
+                    maybe_count = s.maybe_count + d.maybe,
+                    updated_at = now()
+                FROM drift d
+                WHERE d.event_id = s.event_id AND s.event_id IN (SELECT event_id FROM locked)
+                RETURNING s.event_id
+            ),
+            inserted AS (
+                INSERT INTO event_rsvp_summary (event_id, pending_count, accepted_count, declined_count, maybe_count, updated_at)
+                SELECT event_id, pending, accepted, declined, maybe, now()
+                FROM drift
+                WHERE NOT stored
+                ORDER BY event_id
+                ON CONFLICT (event_id) DO UPDATE SET
+                    pending_count = event_rsvp_summary.pending_count + EXCLUDED.pending_count,
+                    accepted_count = event_rsvp_summary.accepted_count + EXCLUDED.accepted_count,
+                    declined_count = event_rsvp_summary.declined_count + EXCLUDED.declined_count,
+                    maybe_count = event_rsvp_summary.maybe_count + EXCLUDED.maybe_count,
+                    updated_at = EXCLUDED.updated_at
+                RETURNING event_id
+            )
+            SELECT event_id FROM updated
+            UNION ALL
+            SELECT event_id FROM inserted
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addPending(Map<UUID, Integer> createdPerEvent) {
+        if (createdPerEvent.isEmpty()) {
+            return;
+        }
+
+        // Sorted so concurrent batches lock summary rows in the same order
+        Map<UUID, Integer> sorted = new TreeMap<>(createdPerEvent);
+        UUID[] eventIds = sorted.keySet().toArray(UUID[]::new);
+        Integer[] created = sorted.values().toArray(Integer[]::new);
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(ADD_PENDING);
+            ps.setArray(1, con.createArrayOf("uuid", eventIds));
+            ps.setArray(2, con.createArrayOf("int4", created));
+            return ps;
+        });
+    }
+
+    @Override
+    public void applyDeltas(Map<UUID, RsvpDelta> deltasPerEvent) {
+        if (deltasPerEvent.isEmpty()) {
+            return;
+        }
+
+        // Sorted so concurrent batches lock summary rows in the same order
+        Map<UUID, RsvpDelta> sorted = new TreeMap<>(deltasPerEvent);
+        int size = sorted.size();
+        UUID[] eventIds = new UUID[size];
+        Integer[] pending = new Integer[size];
+        Integer[] accepted = new Integer[size];
+        Integer[] declined = new Integer[size];
+        Integer[] maybe = new Integer[size];
+        int i = 0;
+        for (Map.Entry<UUID, RsvpDelta> entry : sorted.entrySet()) {
+            eventIds[i] = entry.getKey();
+            pending[i] = entry.getValue().pending();
+            accepted[i] = entry.getValue().accepted();
+            declined[i] = entry.getValue().declined();
+            maybe[i] = entry.getValue().maybe();
+            i++;
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPLY_DELTAS);
+            ps.setArray(1, con.createArrayOf("uuid", eventIds));
+            ps.setArray(2, con.createArrayOf("int4", pending));
+            ps.setArray(3, con.createArrayOf("int4", accepted));
+            ps.setArray(4, con.createArrayOf("int4", declined));
+            ps.setArray(5, con.createArrayOf("int4", maybe));
+            return ps;
+        });
+    }
+
+    @Override
+    public List<UUID> reconcile() {
+        Boolean locked = jdbcTemplate.queryForObject(TRY_RECONCILIATION_LOCK, Boolean.class, RECONCILIATION_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(RECONCILE, UUID.class);
+    }
+}
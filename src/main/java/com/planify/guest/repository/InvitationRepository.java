@@ -1,6 +1,10 @@
 package com.planify.guest.repository;
 
 import com.planify.guest.model.Invitation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,30 +12,39 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Finders take the result type: {@code Invitation.class} for managed entities, or a DTO such as
+ * {@link com.planify.guest.dto.InvitationView} for a constructor projection that selects only
+ * its columns and leaves the persistence context empty.
+ */
 @Repository
-public interface InvitationRepository extends JpaRepository<Invitation, UUID> {
-    
+public interface InvitationRepository extends JpaRepository<Invitation, UUID>, InvitationRepositoryCustom {
+
     // Find all invitations for a user
-    List<Invitation> findByUserId(UUID userId);
-    
+    <T> List<T> findByUserId(UUID userId, Class<T> type);
+
     // Find all invitations for an event
-    List<Invitation> findByEventId(UUID eventId);
-    
+    <T> List<T> findByEventId(UUID eventId, Class<T> type);
+
     // Find by organization
-    List<Invitation> findByOrganizationId(UUID organizationId);
-    
+    <T> List<T> findByOrganizationId(UUID organizationId, Class<T> type);
+
     // Find specific invitation
-    Optional<Invitation> findByEventIdAndUserId(UUID eventId, UUID userId);
-    
+    <T> Optional<T> findByEventIdAndUserId(UUID eventId, UUID userId, Class<T> type);
+
     // Check if invitation exists
     boolean existsByEventIdAndUserId(UUID eventId, UUID userId);
-    
+
     // Find by RSVP status
-    List<Invitation> findByUserIdAndRsvpStatus(UUID userId, Invitation.RsvpStatus status);
-    
+    <T> List<T> findByUserIdAndRsvpStatus(UUID userId, Invitation.RsvpStatus status, Class<T> type);
+
     // Find by event and status
-    List<Invitation> findByEventIdAndRsvpStatus(UUID eventId, Invitation.RsvpStatus status);
-    
-    // Delete all invitations for an event
-    void deleteByEventId(UUID eventId);
-}
\ No newline at end of file
+    <T> List<T> findByEventIdAndRsvpStatus(UUID eventId, Invitation.RsvpStatus status, Class<T> type);
+
+    // Keyset (seek) pages, sorted by (invitationReceivedAt, id)
+    <T> Window<T> findByUserId(UUID userId, ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+
+    <T> Window<T> findByEventId(UUID eventId, ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+
+    <T> Window<T> findByOrganizationId(UUID organizationId, ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+}
@@ -0,0 +1,106 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+
+import java.time.Duration;
+import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set-based operations that Spring Data cannot derive and that would otherwise
+ * cost one round trip (and one persistence context entry) per invitation.
+ */
+public interface InvitationRepositoryCustom {
+
+    /**
+     * Inserts all invitations in a single statement, silently skipping rows that
+     * collide with the UNIQUE(event_id, user_id) constraint.
+     *
+     * @return number of rows actually inserted, per event; events with no new rows are absent
+     */
+    Map<UUID, Integer> insertIgnoringDuplicates(List<Invitation> invitations);
+
+    /**
+     * Sets the RSVP status of one invitation in a single statement that locks the row, writes
+     * it only if the status actually changes, and returns the status it had before. Concurrent
+     * responses for the same invitation are serialized by the row lock, so each one sees the
+     * status left by the previous one.
+     *
+     * @return empty if the invitation does not exist
+     */
+    Optional<RsvpTransition> transitionRsvp(UUID eventId, UUID userId, Invitation.RsvpStatus status, LocalDateTime respondedAt);
+
+    /**
+     * Set-based form of {@link #transitionRsvp} for many invitations of one organization in a
+     * single statement. Each element of {@code requested} names an invitation by event and user
+     * and carries the status to set; when the same invitation appears more than once, the last
+     * one wins. Invitations that do not exist or belong to another organization are absent from
+     * the result.
+     */
+    List<RsvpTransition> transitionRsvps(UUID organizationId, List<Invitation> requested, LocalDateTime respondedAt);
+
+    /**
+     * Deletes one invitation with a single DELETE ... RETURNING. A response that holds the row
+     * lock finishes first, so the returned status is the one the invitation had when it was deleted.
+     *
+     * @return the deleted invitation's RSVP status; empty if it did not exist
+     */
+    Optional<Invitation.RsvpStatus> deleteReturningStatus(UUID eventId, UUID userId);
+
+    /**
+     * Deletes at most {@code limit} invitations of the given event with one set-based
+     * DELETE, without loading them into the persistence context.
+     *
+     * @return number of rows deleted; less than {@code limit} once the event is empty
+     */
+    int deleteChunkByEventId(UUID eventId, int limit);
+
+    /**
+     * Streams all invitations of an event, ordered by (invitation_received_at, id), through a
+     * server-side cursor. Rows are handed to {@code sink} as they arrive, as views that are never
+     * attached to the persistence context. Must run inside a transaction so the driver can use a cursor.
+     */
+    void forEachByEventId(UUID eventId, Consumer<InvitationView> sink);
+
+    /**
+     * Organization counterpart of {@link #forEachByEventId(UUID, Consumer)}.
+     */
+    void forEachByOrganizationId(UUID organizationId, Consumer<InvitationView> sink);
+
+    /**
+     * Starts the online move to a table hash-partitioned by event_id (migration V6): creates the
+     * partitioned table and the trigger that mirrors writes into it.
+     *
+     * @return false if the move was already started or finished
+     */
+    boolean preparePartitioning(int partitions);
+
+    /**
+     * Copies the next {@code batchSize} existing invitations into the partitioned table, in id
+     * order, in its own short transaction.
+     *
+     * @return number of rows copied; 0 once every row was copied or no move is in progress
+     */
+    int backfillPartitioned(int batchSize);
+
+    /**
+     * Copies the rows the backfill has not reached and puts the partitioned table in place of
+     * invitations, holding an exclusive lock on invitations meanwhile. Gives up with an exception
+     * if the lock is not granted within {@code lockWait}.
+     *
+     * @return false if no move is in progress
+     */
+    boolean swapPartitioned(Duration lockWait);
+
+    /**
+     * Outcome of {@link #transitionRsvp}: the invitation as it is now and the status it had
+     * before. {@code changed} is false for a no-op response, which wrote nothing.
+     */
+    record RsvpTransition(Invitation invitation, Invitation.RsvpStatus previousStatus, boolean changed) {
+    }
+}
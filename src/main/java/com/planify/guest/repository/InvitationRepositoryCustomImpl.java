@@ -0,0 +1,275 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class InvitationRepositoryCustomImpl implements InvitationRepositoryCustom {
+
+    // Arrays keep the statement text constant regardless of batch size, so the
+    // driver can reuse one server-side prepared statement for every batch.
+    private static final String INSERT_IGNORING_DUPLICATES = """
+            INSERT INTO invitations (event_id, user_id, organization_id, rsvp_status, invitation_received_at)
+            SELECT t.event_id, t.user_id, t.organization_id, t.rsvp_status, ?
+            FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::varchar[]) AS t(event_id, user_id, organization_id, rsvp_status)
+            ON CONFLICT (event_id, user_id) DO NOTHING
+            RETURNING event_id
+            """;
+
+    private static final String COUNT_INSERTED_PER_EVENT = """
+            WITH inserted AS (%s)
+            SELECT event_id, count(*) AS created FROM inserted GROUP BY event_id
+            """.formatted(INSERT_IGNORING_DUPLICATES);
+
+    // Shared tail of the RSVP transitions. Expects a CTE previous(...) with the locked rows and
+    // their requested_status; writes only the rows whose status changes and returns every row as
+    // it is now together with its previous status. The UPDATE returns the previous status itself,
+    // so no join between the CTEs is needed.
+    private static final String TRANSITION_UPDATE = """
+            , updated AS (
+                UPDATE invitations i
+                SET rsvp_status = p.requested_status, responded_at = ?
+                FROM previous p
+                WHERE i.id = p.id AND p.rsvp_status <> p.requested_status
+                RETURNING i.id, i.event_id, i.user_id, i.organization_id, i.invitation_received_at,
+                          i.rsvp_status, i.responded_at, p.rsvp_status AS previous_status, true AS changed
+            )
+            SELECT * FROM updated
+            UNION ALL
+            SELECT id, event_id, user_id, organization_id, invitation_received_at,
+                   rsvp_status, responded_at, rsvp_status AS previous_status, false AS changed
+            FROM previous
+            WHERE rsvp_status = requested_status
+            """;
+
+    // FOR UPDATE makes a concurrent response wait and then read the status it left behind
+    private static final String TRANSITION_RSVP = """
+            WITH previous AS (
+                SELECT id, event_id, user_id, organization_id, rsvp_status, responded_at, invitation_received_at,
+                       ?::varchar AS requested_status
+                FROM invitations
+                WHERE event_id = ? AND user_id = ?
+                FOR UPDATE
+            )
+            """ + TRANSITION_UPDATE;
+
+    // Bulk variant: the last request per (event_id, user_id) wins, rows are locked in id order so
+    // overlapping bulk calls cannot deadlock, and only rows of the given organization are touched
+    private static final String TRANSITION_RSVPS = """
+            WITH requested AS (
+                SELECT DISTINCT ON (t.event_id, t.user_id) t.event_id, t.user_id, t.rsvp_status
+                FROM unnest(?::uuid[], ?::uuid[], ?::varchar[]) WITH ORDINALITY AS t(event_id, user_id, rsvp_status, ord)
+                ORDER BY t.event_id, t.user_id, t.ord DESC
+            ), previous AS (
+                SELECT i.id, i.event_id, i.user_id, i.organization_id, i.rsvp_status, i.responded_at,
+                       i.invitation_received_at, r.rsvp_status AS requested_status
+                FROM invitations i
+                JOIN requested r ON r.event_id = i.event_id AND r.user_id = i.user_id
+                WHERE i.organization_id = ?
+                ORDER BY i.id
+                FOR UPDATE OF i
+            )
+            """ + TRANSITION_UPDATE;
+
+    private static final String DELETE_RETURNING_STATUS = """
+            DELETE FROM invitations
+            WHERE event_id = ? AND user_id = ?
+            RETURNING rsvp_status
+            """;
+
+    // event_id on the outer DELETE as well, so a table partitioned by event_id touches one partition
+    private static final String DELETE_CHUNK_BY_EVENT_ID = """
+            DELETE FROM invitations
+            WHERE event_id = ? AND id IN (SELECT id FROM invitations WHERE event_id = ? LIMIT ?)
+            """;
+
+    private static final String SELECT_BY_EVENT_ID = """
+            SELECT id, event_id, user_id, organization_id, rsvp_status, responded_at, invitation_received_at
+            FROM invitations
+            WHERE event_id = ?
+            ORDER BY invitation_received_at, id
+            """;
+
+    private static final String SELECT_BY_ORGANIZATION_ID = """
+            SELECT id, event_id, user_id, organization_id, rsvp_status, responded_at, invitation_received_at
+            FROM invitations
+            WHERE organization_id = ?
+            ORDER BY invitation_received_at, id
+            """;
+
+    // Rows fetched per cursor round trip when streaming
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<UUID, Integer> insertIgnoringDuplicates(List<Invitation> invitations) {
+        if (invitations.isEmpty()) {
+            return Map.of();
+        }
+
+        int size = invitations.size();
+        UUID[] eventIds = new UUID[size];
+        UUID[] userIds = new UUID[size];
+        UUID[] organizationIds = new UUID[size];
+        String[] statuses = new String[size];
+        for (int i = 0; i < size; i++) {
+            Invitation invitation = invitations.get(i);
+            eventIds[i] = invitation.getEventId();
+            userIds[i] = invitation.getUserId();
+            organizationIds[i] = invitation.getOrganizationId();
+            Invitation.RsvpStatus status = invitation.getRsvpStatus() != null
+                    ? invitation.getRsvpStatus()
+                    : Invitation.RsvpStatus.PENDING;
+            statuses[i] = status.name();
+        }
+
+        Map<UUID, Integer> createdPerEvent = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(COUNT_INSERTED_PER_EVENT);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, con.createArrayOf("uuid", eventIds));
+            ps.setArray(3, con.createArrayOf("uuid", userIds));
+            ps.setArray(4, con.createArrayOf("uuid", organizationIds));
+            ps.setArray(5, con.createArrayOf("varchar", statuses));
+            return ps;
+        }, (RowCallbackHandler) rs -> createdPerEvent.put(rs.getObject("event_id", UUID.class), rs.getInt("created")));
+        return createdPerEvent;
+    }
+
+    @Override
+    public Optional<RsvpTransition> transitionRsvp(UUID eventId, UUID userId, Invitation.RsvpStatus status, LocalDateTime respondedAt) {
+        List<RsvpTransition> transitions = jdbcTemplate.query(TRANSITION_RSVP,
+                (rs, rowNum) -> mapTransition(rs),
+                status.name(), eventId, userId, Timestamp.valueOf(respondedAt));
+        return transitions.stream().findFirst();
+    }
+
+    @Override
+    public List<RsvpTransition> transitionRsvps(UUID organizationId, List<Invitation> requested, LocalDateTime respondedAt) {
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+
+        int size = requested.size();
+        UUID[] eventIds = new UUID[size];
+        UUID[] userIds = new UUID[size];
+        String[] statuses = new String[size];
+        for (int i = 0; i < size; i++) {
+            Invitation invitation = requested.get(i);
+            eventIds[i] = invitation.getEventId();
+            userIds[i] = invitation.getUserId();
+            statuses[i] = invitation.getRsvpStatus().name();
+        }
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(TRANSITION_RSVPS);
+            ps.setArray(1, con.createArrayOf("uuid", eventIds));
+            ps.setArray(2, con.createArrayOf("uuid", userIds));
+            ps.setArray(3, con.createArrayOf("varchar", statuses));
+            ps.setObject(4, organizationId);
+            ps.setTimestamp(5, Timestamp.valueOf(respondedAt));
+            return ps;
+        }, (rs, rowNum) -> mapTransition(rs));
+    }
+
+    @Override
+    public Optional<Invitation.RsvpStatus> deleteReturningStatus(UUID eventId, UUID userId) {
+        List<Invitation.RsvpStatus> statuses = jdbcTemplate.query(DELETE_RETURNING_STATUS,
+                (rs, rowNum) -> Invitation.RsvpStatus.valueOf(rs.getString("rsvp_status")),
+                eventId, userId);
+        return statuses.stream().findFirst();
+    }
+
+    @Override
+    public int deleteChunkByEventId(UUID eventId, int limit) {
+        return jdbcTemplate.update(DELETE_CHUNK_BY_EVENT_ID, eventId, eventId, limit);
+    }
+
+    @Override
+    public boolean preparePartitioning(int partitions) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT prepare_invitations_partitioning(?)", Boolean.class, partitions));
+    }
+
+    @Override
+    public int backfillPartitioned(int batchSize) {
+        Integer copied = jdbcTemplate.queryForObject(
+                "SELECT backfill_partitioned_invitations(?)", Integer.class, batchSize);
+        return copied != null ? copied : 0;
+    }
+
+    @Override
+    public boolean swapPartitioned(Duration lockWait) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT swap_partitioned_invitations(make_interval(secs => ?))", Boolean.class,
+                lockWait.toMillis() / 1000.0));
+    }
+
+    @Override
+    public void forEachByEventId(UUID eventId, Consumer<InvitationView> sink) {
+        stream(SELECT_BY_EVENT_ID, eventId, sink);
+    }
+
+    @Override
+    public void forEachByOrganizationId(UUID organizationId, Consumer<InvitationView> sink) {
+        stream(SELECT_BY_ORGANIZATION_ID, organizationId, sink);
+    }
+
+    private void stream(String sql, UUID key, Consumer<InvitationView> sink) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setObject(1, key);
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(mapView(rs)));
+    }
+
+    private static RsvpTransition mapTransition(ResultSet rs) throws SQLException {
+        return new RsvpTransition(
+                mapInvitation(rs),
+                Invitation.RsvpStatus.valueOf(rs.getString("previous_status")),
+                rs.getBoolean("changed"));
+    }
+
+    private static Invitation mapInvitation(ResultSet rs) throws SQLException {
+        Timestamp respondedAt = rs.getTimestamp("responded_at");
+        return Invitation.builder()
+                .id(rs.getObject("id", UUID.class))
+                .eventId(rs.getObject("event_id", UUID.class))
+                .userId(rs.getObject("user_id", UUID.class))
+                .organizationId(rs.getObject("organization_id", UUID.class))
+                .rsvpStatus(Invitation.RsvpStatus.valueOf(rs.getString("rsvp_status")))
+                .respondedAt(respondedAt != null ? respondedAt.toLocalDateTime() : null)
+                .invitationReceivedAt(rs.getTimestamp("invitation_received_at").toLocalDateTime())
+                .build();
+    }
+
+    private static InvitationView mapView(ResultSet rs) throws SQLException {
+        Timestamp respondedAt = rs.getTimestamp("responded_at");
+        return new InvitationView(
+                rs.getObject("id", UUID.class),
+                rs.getObject("event_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getObject("organization_id", UUID.class),
+                Invitation.RsvpStatus.valueOf(rs.getString("rsvp_status")),
+                respondedAt != null ? respondedAt.toLocalDateTime() : null,
+                rs.getTimestamp("invitation_received_at").toLocalDateTime());
+    }
+}
@@ -0,0 +1,28 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long>, OutboxRepositoryCustom {
+    
+    // Locks the oldest messages not already locked by another relay; must run in a transaction
+    @Query(value = "SELECT * FROM outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxMessage> lockNextBatch(@Param("limit") int limit);
+    
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT min(m.createdAt) FROM OutboxMessage m")
+    Optional<LocalDateTime> findOldestCreatedAt();
+}
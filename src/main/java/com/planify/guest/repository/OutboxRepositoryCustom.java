@@ -0,0 +1,17 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.model.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Bulk writes to the outbox that would otherwise cost one INSERT per message.
+ */
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Inserts all messages with one statement. Ids are assigned in list order, so the relay
+     * publishes them in that order.
+     */
+    void insertAll(List<OutboxMessage> messages);
+}
@@ -0,0 +1,50 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.model.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxRepositoryCustomImpl implements OutboxRepositoryCustom {
+
+    private static final String INSERT_ALL = """
+            INSERT INTO outbox (topic, message_key, payload, created_at)
+            SELECT t.topic, t.message_key, t.payload, ?
+            FROM unnest(?::varchar[], ?::varchar[], ?::text[]) WITH ORDINALITY AS t(topic, message_key, payload, ord)
+            ORDER BY t.ord
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        int size = messages.size();
+        String[] topics = new String[size];
+        String[] keys = new String[size];
+        String[] payloads = new String[size];
+        for (int i = 0; i < size; i++) {
+            OutboxMessage message = messages.get(i);
+            topics[i] = message.getTopic();
+            keys[i] = message.getMessageKey();
+            payloads[i] = message.getPayload();
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_ALL);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, con.createArrayOf("varchar", topics));
+            ps.setArray(3, con.createArrayOf("varchar", keys));
+            ps.setArray(4, con.createArrayOf("text", payloads));
+            return ps;
+        });
+    }
+}
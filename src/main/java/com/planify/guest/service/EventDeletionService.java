@@ -0,0 +1,85 @@
+package com.planify.guest.service;
+
+import com.planify.guest.repository.InvitationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Removes all invitations of a deleted event in bounded chunks.
+ *
+ * Every chunk is a single DELETE that commits on its own, so row locks are held only for
+ * one chunk and nothing is loaded into the persistence context. The operation is
+ * idempotent: if the pod stops half way, the event-deleted record is redelivered (its
+ * offset is committed only after the listener returns) and deletion resumes with
+ * whatever rows are left. The event's RSVP summary row is removed once no invitations remain.
+ */
+@Service
+@Slf4j
+public class EventDeletionService {
+
+    private final InvitationRepository invitationRepository;
+    private final RsvpSummaryService rsvpSummaryService;
+    private final int chunkSize;
+    private final Counter deletedRows;
+    private final Counter deletedChunks;
+    private final Timer deletionTimer;
+    private final AtomicInteger activeDeletions = new AtomicInteger();
+
+    public EventDeletionService(InvitationRepository invitationRepository,
+                                RsvpSummaryService rsvpSummaryService,
+                                MeterRegistry meterRegistry,
+                                @Value("${guest.event-deletion.chunk-size:1000}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("guest.event-deletion.chunk-size must be positive");
+        }
+        this.invitationRepository = invitationRepository;
+        this.rsvpSummaryService = rsvpSummaryService;
+        this.chunkSize = chunkSize;
+        this.deletedRows = Counter.builder("guest.event.deletion.rows")
+                .description("Invitations removed because their event was deleted")
+                .register(meterRegistry);
+        this.deletedChunks = Counter.builder("guest.event.deletion.chunks")
+                .description("DELETE statements issued for event deletions")
+                .register(meterRegistry);
+        this.deletionTimer = Timer.builder("guest.event.deletion")
+                .description("Time to remove all invitations of a deleted event")
+                .register(meterRegistry);
+        meterRegistry.gauge("guest.event.deletion.active", activeDeletions);
+    }
+
+    /**
+     * Deletes every invitation of the event, committing after each chunk.
+     *
+     * @return total number of invitations deleted by this call
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteInvitations(UUID eventId) {
+        activeDeletions.incrementAndGet();
+        Timer.Sample sample = Timer.start();
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = invitationRepository.deleteChunkByEventId(eventId, chunkSize);
+                total += deleted;
+                deletedRows.increment(deleted);
+                deletedChunks.increment();
+                log.debug("Deleted chunk of {} invitations for event {} ({} so far)", deleted, eventId, total);
+            } while (deleted == chunkSize);
+            rsvpSummaryService.deleteSummary(eventId);
+            return total;
+        } finally {
+            sample.stop(deletionTimer);
+            activeDeletions.decrementAndGet();
+        }
+    }
+}
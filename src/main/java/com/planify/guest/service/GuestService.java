@@ -1,178 +1,363 @@
 package com.planify.guest.service;
 
-import com.planify.guest.event.KafkaProducer;
+import com.planify.guest.dto.BulkRsvpRequest;
+import com.planify.guest.dto.BulkRsvpResult;
+import com.planify.guest.dto.InvitationCursor;
+import com.planify.guest.dto.InvitationInbox;
+import com.planify.guest.dto.InvitationPage;
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.dto.RsvpChange;
+import com.planify.guest.event.EventCodec;
+import com.planify.guest.event.GuestInvited;
+import com.planify.guest.event.RsvpChanged;
+import com.planify.guest.model.EventRsvpSummary;
 import com.planify.guest.model.Invitation;
+import com.planify.guest.model.OutboxMessage;
 import com.planify.guest.repository.InvitationRepository;
+import com.planify.guest.repository.InvitationRepositoryCustom.RsvpTransition;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class GuestService {
     
+    // Keyset order of all paged listings; id breaks ties between equal timestamps
+    private static final Sort KEYSET_ORDER = Sort.by("invitationReceivedAt", "id");
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BULK_RSVP_ITEMS = 10_000;
+    
     private final InvitationRepository invitationRepository;
-    private final KafkaProducer kafkaProducer;
+    private final OutboxService outboxService;
+    private final EventDeletionService eventDeletionService;
+    private final RsvpSummaryService rsvpSummaryService;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final InvitationInboxCache invitationInboxCache;
+    private final ApplicationEventPublisher eventPublisher;
     
-    // Query Operations    
-    public List<Invitation> getMyInvitations(UUID userId) {
-        return invitationRepository.findByUserId(userId);
+    // Query Operations: read-only transactions go to the read replica when one is configured;
+    // a user's own invitations come from the primary for a short while after they responded.
+    // Reads return InvitationView projections, never managed entities; the two inbox listings
+    // come with an entity tag from InvitationInboxCache and touch the database only on a miss.
+    public InvitationInbox getMyInvitations(UUID userId) {
+        return invitationInboxCache.invitations(userId);
     }
     
-    public Invitation getMyInvitation(UUID eventId, UUID userId) {
-        return invitationRepository.findByEventIdAndUserId(eventId, userId)
+    @Transactional(readOnly = true)
+    public InvitationView getMyInvitation(UUID eventId, UUID userId) {
+        return readYourWritesWindow.read(userId,
+            () -> invitationRepository.findByEventIdAndUserId(eventId, userId, InvitationView.class))
             .orElseThrow(() -> new RuntimeException("Invitation not found for event: " + eventId));
     }
     
-    public List<Invitation> getMyAcceptedEvents(UUID userId) {
-        return invitationRepository.findByUserIdAndRsvpStatus(userId, Invitation.RsvpStatus.ACCEPTED);
+    public InvitationInbox getMyAcceptedEvents(UUID userId) {
+        return invitationInboxCache.acceptedEvents(userId);
+    }
+    
+    /**
+     * Keyset page of the user's invitations. {@code cursor} is the {@code nextCursor} of the
+     * previous page, or null for the first page.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public InvitationPage getMyInvitationsPage(UUID userId, String cursor, int limit) {
+        ScrollPosition position = scrollPosition(cursor);
+        return toPage(readYourWritesWindow.read(userId,
+            () -> invitationRepository.findByUserId(userId, position, KEYSET_ORDER, pageLimit(limit), InvitationView.class)));
     }
     
     // RSVP Management    
+    /**
+     * RSVP responses are a single locking UPDATE that returns the previous status, so double
+     * submissions cannot lose an update. Repeating the current status writes nothing and queues
+     * no event. A change is also published as an {@link RsvpChange}, which {@link RsvpStreamHub}
+     * pushes to the event's subscribers once the transaction has committed.
+     */
     @Transactional
     public Invitation acceptInvitation(UUID eventId, UUID userId) {
-        Invitation invitation = getMyInvitation(eventId, userId);
-        
-        Invitation.RsvpStatus previousStatus = invitation.getRsvpStatus();
-        invitation.setRsvpStatus(Invitation.RsvpStatus.ACCEPTED);
-        invitation.setRespondedAt(LocalDateTime.now());
-        
-        Invitation updated = invitationRepository.save(invitation);
-        
-        // Publish Kafka event
-        Map<String, Object> payload = Map.of(
-            "eventId", eventId.toString(),
-            "userId", userId.toString(),
-            "wasAccepted", previousStatus == Invitation.RsvpStatus.ACCEPTED,
-            "timestamp", LocalDateTime.now().toString()
-        );
-
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(payload);
-            kafkaProducer.sendMessage("rsvp-accepted", message);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize RSVP payload for user {} in event {}: {}", userId, eventId, e.getMessage(), e);
+        RsvpTransition transition = respond(eventId, userId, Invitation.RsvpStatus.ACCEPTED);
+        if (transition.changed()) {
+            // Queue Kafka event, published by the outbox relay after commit
+            enqueueRsvpEvent("rsvp-accepted", eventId, userId, false);
+            log.info("User {} accepted invitation to event {}", userId, eventId);
         }
-        
-        log.info("User {} accepted invitation to event {}", userId, eventId);
-        return updated;
+        return transition.invitation();
     }
     
     @Transactional
     public Invitation declineInvitation(UUID eventId, UUID userId) {
-        Invitation invitation = getMyInvitation(eventId, userId);
-        
-        Invitation.RsvpStatus previousStatus = invitation.getRsvpStatus();
-        invitation.setRsvpStatus(Invitation.RsvpStatus.DECLINED);
-        invitation.setRespondedAt(LocalDateTime.now());
-        
-        Invitation updated = invitationRepository.save(invitation);
-        
-        // Publish Kafka event
-        Map<String, Object> payload = Map.of(
-            "eventId", eventId.toString(),
-            "userId", userId.toString(),
-            "wasAccepted", previousStatus == Invitation.RsvpStatus.ACCEPTED,
-            "timestamp", LocalDateTime.now().toString()
-        );
-
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(payload);
-            kafkaProducer.sendMessage("rsvp-declined", message);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize RSVP payload for user {} in event {}: {}", userId, eventId, e.getMessage(), e);
+        RsvpTransition transition = respond(eventId, userId, Invitation.RsvpStatus.DECLINED);
+        if (transition.changed()) {
+            // Queue Kafka event, published by the outbox relay after commit
+            enqueueRsvpEvent("rsvp-declined", eventId, userId, transition.previousStatus() == Invitation.RsvpStatus.ACCEPTED);
+            log.info("User {} declined invitation to event {}", userId, eventId);
         }
-        
-        log.info("User {} declined invitation to event {}", userId, eventId);
-        return updated;
+        return transition.invitation();
     }
     
     @Transactional
     public Invitation maybeInvitation(UUID eventId, UUID userId) {
-        Invitation invitation = getMyInvitation(eventId, userId);
+        RsvpTransition transition = respond(eventId, userId, Invitation.RsvpStatus.MAYBE);
+        if (transition.changed()) {
+            log.info("User {} responded MAYBE to event {}", userId, eventId);
+        }
+        return transition.invitation();
+    }
+    
+    /**
+     * Applies many RSVP responses of one organization's invitations with a single locking
+     * UPDATE, one summary upsert and one outbox insert, and returns one result per item in
+     * request order. Invitations of other organizations are reported as NOT_FOUND. When an
+     * invitation appears more than once, the last item wins and all its items report its outcome.
+     *
+     * @throws IllegalArgumentException if the request is empty, too large, or an item is incomplete
+     *                                  or asks for PENDING
+     */
+    @Transactional
+    public List<BulkRsvpResult> respondInBulk(UUID organizationId, List<BulkRsvpRequest.Item> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BULK_RSVP_ITEMS) {
+            throw new IllegalArgumentException("A bulk RSVP request must contain 1 to " + MAX_BULK_RSVP_ITEMS + " items");
+        }
+        List<Invitation> requested = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BulkRsvpRequest.Item item = items.get(i);
+            if (item == null || item.eventId() == null || item.userId() == null
+                || item.status() == null || item.status() == Invitation.RsvpStatus.PENDING) {
+                throw new IllegalArgumentException("Item " + i + " needs eventId, userId and a status other than PENDING");
+            }
+            requested.add(Invitation.builder()
+                .eventId(item.eventId())
+                .userId(item.userId())
+                .rsvpStatus(item.status())
+                .build());
+        }
         
-        invitation.setRsvpStatus(Invitation.RsvpStatus.MAYBE);
-        invitation.setRespondedAt(LocalDateTime.now());
+        List<RsvpTransition> transitions = invitationRepository.transitionRsvps(organizationId, requested, LocalDateTime.now());
+        rsvpSummaryService.recordTransitions(transitions);
         
-        Invitation updated = invitationRepository.save(invitation);
+        Map<InvitationKey, RsvpTransition> byInvitation = new HashMap<>();
+        List<OutboxMessage> messages = new ArrayList<>();
+        Set<UUID> changedUsers = new HashSet<>();
+        for (RsvpTransition transition : transitions) {
+            Invitation invitation = transition.invitation();
+            byInvitation.put(new InvitationKey(invitation.getEventId(), invitation.getUserId()), transition);
+            if (transition.changed()) {
+                changedUsers.add(invitation.getUserId());
+                eventPublisher.publishEvent(new RsvpChange(invitation.getEventId(), invitation.getUserId(),
+                    transition.previousStatus(), invitation.getRsvpStatus(), LocalDateTime.now()));
+                OutboxMessage message = rsvpMessage(invitation.getEventId(), invitation.getUserId(),
+                    invitation.getRsvpStatus(), transition.previousStatus());
+                if (message != null) {
+                    messages.add(message);
+                }
+            }
+        }
+        // Queue all Kafka events at once, published by the outbox relay after commit
+        outboxService.enqueueAll(messages);
+        invitationInboxCache.invalidateAll(changedUsers);
         
-        log.info("User {} responded MAYBE to event {}", userId, eventId);
-        return updated;
+        List<BulkRsvpResult> results = new ArrayList<>(items.size());
+        for (BulkRsvpRequest.Item item : items) {
+            RsvpTransition transition = byInvitation.get(new InvitationKey(item.eventId(), item.userId()));
+            if (transition == null) {
+                results.add(new BulkRsvpResult(item.eventId(), item.userId(), BulkRsvpResult.Outcome.NOT_FOUND, null, null));
+            } else {
+                results.add(new BulkRsvpResult(item.eventId(), item.userId(),
+                    transition.changed() ? BulkRsvpResult.Outcome.UPDATED : BulkRsvpResult.Outcome.UNCHANGED,
+                    transition.previousStatus(), transition.invitation().getRsvpStatus()));
+            }
+        }
+        log.info("Applied bulk RSVP for organization {}: {} items, {} invitations found, {} changed",
+            organizationId, items.size(), transitions.size(), transitions.stream().filter(RsvpTransition::changed).count());
+        return results;
+    }
+    
+    private RsvpTransition respond(UUID eventId, UUID userId, Invitation.RsvpStatus status) {
+        RsvpTransition transition = invitationRepository.transitionRsvp(eventId, userId, status, LocalDateTime.now())
+            .orElseThrow(() -> new RuntimeException("Invitation not found for event: " + eventId));
+        if (transition.changed()) {
+            rsvpSummaryService.recordTransition(eventId, transition.previousStatus(), status);
+            invitationInboxCache.invalidate(userId);
+            eventPublisher.publishEvent(new RsvpChange(eventId, userId, transition.previousStatus(), status, LocalDateTime.now()));
+        } else {
+            log.debug("User {} already responded {} to event {}", userId, status, eventId);
+        }
+        return transition;
     }
     
     // Internal API for event-manager    
-    public List<Invitation> getEventInvitations(UUID eventId) {
-        return invitationRepository.findByEventId(eventId);
+    @Transactional(readOnly = true)
+    public List<InvitationView> getEventInvitations(UUID eventId) {
+        return invitationRepository.findByEventId(eventId, InvitationView.class);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<InvitationView> getInvitationsByOrganization(UUID organizationId) {
+        return invitationRepository.findByOrganizationId(organizationId, InvitationView.class);
+    }
+    
+    @Transactional(readOnly = true)
+    public EventRsvpSummary getEventRsvpSummary(UUID eventId) {
+        return rsvpSummaryService.getSummary(eventId);
     }
     
-    public List<Invitation> getInvitationsByOrganization(UUID organizationId) {
-        return invitationRepository.findByOrganizationId(organizationId);
+    @Transactional(readOnly = true)
+    public InvitationPage getEventInvitationsPage(UUID eventId, String cursor, int limit) {
+        return toPage(invitationRepository.findByEventId(eventId, scrollPosition(cursor), KEYSET_ORDER, pageLimit(limit),
+            InvitationView.class));
     }
     
-    // Kafka event handlers    
+    @Transactional(readOnly = true)
+    public InvitationPage getInvitationsByOrganizationPage(UUID organizationId, String cursor, int limit) {
+        return toPage(invitationRepository.findByOrganizationId(organizationId, scrollPosition(cursor), KEYSET_ORDER, pageLimit(limit),
+            InvitationView.class));
+    }
+    
+    /**
+     * Hands every invitation of the event to {@code sink} while rows are read from a database
+     * cursor, so memory use does not grow with the size of the event.
+     */
+    @Transactional(readOnly = true)
+    public void streamEventInvitations(UUID eventId, Consumer<InvitationView> sink) {
+        invitationRepository.forEachByEventId(eventId, sink);
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamInvitationsByOrganization(UUID organizationId, Consumer<InvitationView> sink) {
+        invitationRepository.forEachByOrganizationId(organizationId, sink);
+    }
+    
+    private ScrollPosition scrollPosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        return InvitationCursor.decode(cursor).toScrollPosition();
+    }
+    
+    private Limit pageLimit(int limit) {
+        return Limit.of(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+    
+    private InvitationPage toPage(Window<InvitationView> window) {
+        List<InvitationView> items = window.getContent();
+        String nextCursor = window.hasNext() && !items.isEmpty()
+            ? InvitationCursor.of(items.get(items.size() - 1)).encode()
+            : null;
+        return new InvitationPage(items, nextCursor);
+    }
+    
+    // Kafka event handlers
+    /**
+     * Creates PENDING invitations for a whole batch of guest-invited events with a single
+     * INSERT ... ON CONFLICT DO NOTHING, relying on UNIQUE(event_id, user_id) instead of
+     * a per-invite existence check.
+     *
+     * @return number of invitations actually created
+     */
     @Transactional
-    public void handleGuestInvited(UUID eventId, UUID userId, UUID organizationId) {
-        // Check if invitation already exists
-        if (invitationRepository.existsByEventIdAndUserId(eventId, userId)) {
-            log.warn("Invitation already exists for event {} and user {}", eventId, userId);
-            return;
+    public int handleGuestInvitedBatch(List<GuestInvited> invites) {
+        if (invites.isEmpty()) {
+            return 0;
         }
+
+        List<Invitation> invitations = invites.stream()
+            .map(invite -> Invitation.builder()
+                .eventId(invite.eventId())
+                .userId(invite.userId())
+                .organizationId(invite.organizationId())
+                .rsvpStatus(Invitation.RsvpStatus.PENDING)
+                .build())
+            .toList();
+
+        Map<UUID, Integer> createdPerEvent = invitationRepository.insertIgnoringDuplicates(invitations);
+        rsvpSummaryService.recordInvited(createdPerEvent);
+        // Duplicates leave an inbox unchanged; dropping it anyway costs one reload
+        invitationInboxCache.invalidateAll(invites.stream().map(GuestInvited::userId).toList());
         
-        Invitation invitation = Invitation.builder()
-            .eventId(eventId)
-            .userId(userId)
-            .organizationId(organizationId)
-            .rsvpStatus(Invitation.RsvpStatus.PENDING)
-            .build();
-        
-        invitationRepository.save(invitation);
-        log.info("Created invitation for user {} to event {} in organization {}", userId, eventId, organizationId);
+        int created = createdPerEvent.values().stream().mapToInt(Integer::intValue).sum();
+        log.info("Created {} invitations from batch of {} guest-invited events ({} already existed)",
+            created, invites.size(), invites.size() - created);
+        return created;
     }
-    
+
     @Transactional
     public void handleGuestRemoved(UUID eventId, UUID userId) {
-        invitationRepository.findByEventIdAndUserId(eventId, userId)
-            .ifPresent(invitation -> {
-                boolean wasAccepted = invitation.getRsvpStatus() == Invitation.RsvpStatus.ACCEPTED;
+        // Deleted and read in one statement, so a concurrent response cannot leave a stale status
+        invitationRepository.deleteReturningStatus(eventId, userId)
+            .ifPresent(status -> {
+                boolean wasAccepted = status == Invitation.RsvpStatus.ACCEPTED;
                 
                 if (wasAccepted) {
-                    // Publish rsvp-declined event to decrement attendee count
-                    Map<String, Object> payload = Map.of(
-                        "eventId", eventId.toString(),
-                        "userId", userId.toString(),
-                        "wasAccepted", true,
-                        "timestamp", LocalDateTime.now().toString()
-                    );
-
-                    try {
-                        ObjectMapper mapper = new ObjectMapper();
-                        String message = mapper.writeValueAsString(payload);
-                        kafkaProducer.sendMessage("rsvp-declined", message);
-                        log.info("Published rsvp-declined for removed guest {} from event {}", userId, eventId);
-                    } catch (JsonProcessingException e) {
-                        log.error("Failed to serialize rsvp-declined for removed guest: {}", e.getMessage());
-                    }
+                    // Queue rsvp-declined event to decrement attendee count
+                    enqueueRsvpEvent("rsvp-declined", eventId, userId, true);
+                    log.info("Queued rsvp-declined for removed guest {} from event {}", userId, eventId);
                 }
                 
-                invitationRepository.delete(invitation);
+                rsvpSummaryService.recordTransition(eventId, status, null);
+                invitationInboxCache.invalidate(userId);
                 log.info("Deleted invitation for user {} from event {} (wasAccepted: {})", userId, eventId, wasAccepted);
             });
     }
     
-    @Transactional
     public void handleEventDeleted(UUID eventId) {
-        invitationRepository.deleteByEventId(eventId);
-        log.info("Deleted all invitations for event {}", eventId);
+        long deleted = eventDeletionService.deleteInvitations(eventId);
+        invitationInboxCache.invalidateEvent(eventId);
+        log.info("Deleted all {} invitations for event {}", deleted, eventId);
+    }
+    
+    // Outbox row for a bulk RSVP change; MAYBE publishes nothing, as for single responses
+    private OutboxMessage rsvpMessage(UUID eventId, UUID userId, Invitation.RsvpStatus status, Invitation.RsvpStatus previousStatus) {
+        String topic = switch (status) {
+            case ACCEPTED -> "rsvp-accepted";
+            case DECLINED -> "rsvp-declined";
+            default -> null;
+        };
+        if (topic == null) {
+            return null;
+        }
+        try {
+            return OutboxMessage.builder()
+                .topic(topic)
+                .messageKey(eventId.toString())
+                .payload(EventCodec.encode(new RsvpChanged(eventId, userId,
+                    previousStatus == Invitation.RsvpStatus.ACCEPTED, LocalDateTime.now())))
+                .build();
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} payload for user {} in event {}: {}", topic, userId, eventId, e.getMessage(), e);
+            return null;
+        }
+    }
+    
+    private record InvitationKey(UUID eventId, UUID userId) {
+    }
+    
+    // Writes the RSVP event to the outbox in the current transaction, keyed by event
+    private void enqueueRsvpEvent(String topic, UUID eventId, UUID userId, boolean wasAccepted) {
+        try {
+            String message = EventCodec.encode(new RsvpChanged(eventId, userId, wasAccepted, LocalDateTime.now()));
+            outboxService.enqueue(topic, eventId.toString(), message);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} payload for user {} in event {}: {}", topic, userId, eventId, e.getMessage(), e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.planify.guest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.planify.guest.dto.InvitationInbox;
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+import com.planify.guest.repository.InvitationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory inbox per user behind {@code /my-invitations} and {@code /my-events}.
+ *
+ * An inbox is loaded with one read-only query and serves both listings until the user's
+ * invitations change. Every write path invalidates the affected users once its transaction
+ * commits. A load runs inside the cache's per-key computation, and an invalidation waits for a
+ * running load of the same user, so a load that read the old rows is always dropped. The
+ * invalidation also opens the user's read-your-writes window, so the reload cannot come from a
+ * lagging replica.
+ *
+ * Each instance has its own cache and only sees the writes it makes or consumes; {@code ttl}
+ * bounds how long a change made through another instance can stay invisible. The cache holds at
+ * most {@code maximum-invitations} invitations and publishes cache.* meters tagged
+ * cache=invitation-inbox.
+ */
+@Component
+public class InvitationInboxCache {
+
+    private final InvitationRepository invitationRepository;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final TransactionTemplate readOnly;
+    private final Cache<UUID, Inbox> inboxes;
+
+    public InvitationInboxCache(InvitationRepository invitationRepository,
+                                ReadYourWritesWindow readYourWritesWindow,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${guest.inbox-cache.maximum-invitations:200000}") long maximumInvitations,
+                                @Value("${guest.inbox-cache.ttl:10s}") Duration ttl) {
+        this.invitationRepository = invitationRepository;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.inboxes = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumWeight(maximumInvitations)
+                .weigher((UUID userId, Inbox inbox) -> inbox.invitations().invitations().size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(), "invitation-inbox");
+    }
+
+    public InvitationInbox invitations(UUID userId) {
+        return inboxes.get(userId, this::load).invitations();
+    }
+
+    public InvitationInbox acceptedEvents(UUID userId) {
+        return inboxes.get(userId, this::load).accepted();
+    }
+
+    /**
+     * The user's invitations change in the current transaction: drops their inbox after commit
+     * (immediately outside a transaction). A rolled back write keeps the inbox.
+     */
+    public void invalidate(UUID userId) {
+        invalidateAll(List.of(userId));
+    }
+
+    public void invalidateAll(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        // Window first: its after-commit callback then runs before the eviction below
+        userIds.forEach(readYourWritesWindow::recordWrite);
+        List<UUID> evicted = List.copyOf(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    inboxes.invalidateAll(evicted);
+                }
+            });
+        } else {
+            inboxes.invalidateAll(evicted);
+        }
+    }
+
+    /**
+     * Drops every cached inbox that contains an invitation to the event, without asking the
+     * database who was invited.
+     */
+    public void invalidateEvent(UUID eventId) {
+        List<UUID> affected = inboxes.asMap().entrySet().stream()
+                .filter(entry -> entry.getValue().containsEvent(eventId))
+                .map(Map.Entry::getKey)
+                .toList();
+        invalidateAll(affected);
+    }
+
+    private Inbox load(UUID userId) {
+        List<InvitationView> invitations = readYourWritesWindow.read(userId,
+                () -> readOnly.execute(status -> invitationRepository.findByUserId(userId, InvitationView.class)));
+        return new Inbox(
+                InvitationInbox.of(invitations),
+                InvitationInbox.of(invitations.stream()
+                        .filter(invitation -> invitation.rsvpStatus() == Invitation.RsvpStatus.ACCEPTED)
+                        .toList()));
+    }
+
+    private record Inbox(InvitationInbox invitations, InvitationInbox accepted) {
+
+        boolean containsEvent(UUID eventId) {
+            return invitations.invitations().stream().anyMatch(invitation -> invitation.eventId().equals(eventId));
+        }
+    }
+}
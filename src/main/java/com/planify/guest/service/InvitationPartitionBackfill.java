@@ -0,0 +1,98 @@
+package com.planify.guest.service;
+
+import com.planify.guest.repository.InvitationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Moves invitations to the table hash-partitioned by event_id (migration V6) while the
+ * service keeps running.
+ *
+ * The first run prepares the partitioned table and the mirror trigger; every run after that
+ * copies one batch, and the pause between runs leaves room for regular traffic. Once a batch
+ * comes back empty the tables are swapped, unless {@code swap} is off, which leaves the final
+ * step to an operator. Progress lives in the database, so a restart, or several instances
+ * running the job at once, resume where the last batch stopped. A swap that cannot get its
+ * lock in time is retried on the next run.
+ */
+@Service
+@ConditionalOnProperty(name = "guest.partitioning.backfill.enabled", havingValue = "true")
+@Slf4j
+public class InvitationPartitionBackfill {
+
+    private final InvitationRepository invitationRepository;
+    private final int partitions;
+    private final int batchSize;
+    private final boolean swap;
+    private final Duration swapLockWait;
+    private final Counter copiedRows;
+    private volatile boolean prepared;
+    private volatile boolean finished;
+
+    public InvitationPartitionBackfill(InvitationRepository invitationRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${guest.partitioning.partitions:16}") int partitions,
+                                       @Value("${guest.partitioning.backfill.batch-size:5000}") int batchSize,
+                                       @Value("${guest.partitioning.backfill.swap:true}") boolean swap,
+                                       @Value("${guest.partitioning.backfill.swap-lock-wait:PT5S}") Duration swapLockWait) {
+        if (partitions < 2) {
+            throw new IllegalArgumentException("guest.partitioning.partitions must be at least 2");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("guest.partitioning.backfill.batch-size must be positive");
+        }
+        this.invitationRepository = invitationRepository;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.swap = swap;
+        this.swapLockWait = swapLockWait;
+        this.copiedRows = Counter.builder("guest.partitioning.backfill.rows")
+                .description("Invitations copied into the partitioned table by the backfill")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${guest.partitioning.backfill.initial-delay:PT30S}",
+            fixedDelayString = "${guest.partitioning.backfill.pause:PT0.2S}")
+    public void runOnce() {
+        if (finished) {
+            return;
+        }
+        try {
+            if (!prepared) {
+                if (invitationRepository.preparePartitioning(partitions)) {
+                    log.info("Prepared invitations table with {} hash partitions, starting backfill", partitions);
+                }
+                prepared = true;
+            }
+            int copied = invitationRepository.backfillPartitioned(batchSize);
+            copiedRows.increment(copied);
+            if (copied > 0) {
+                log.debug("Copied {} invitations into the partitioned table", copied);
+                return;
+            }
+            if (!swap) {
+                log.info("Invitations backfill complete, waiting for swap_partitioned_invitations() to be run");
+            } else if (invitationRepository.swapPartitioned(swapLockWait)) {
+                log.info("Swapped in the partitioned invitations table; the old one is kept as invitations_unpartitioned");
+            } else {
+                log.info("Invitations table is already partitioned, nothing to backfill");
+            }
+            finished = true;
+        } catch (DataAccessException e) {
+            log.warn("Invitations partitioning step failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
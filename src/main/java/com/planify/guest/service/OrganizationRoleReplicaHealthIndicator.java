@@ -0,0 +1,53 @@
+package com.planify.guest.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Reports the organization role replica as {@code roleReplica} in actuator health: UNKNOWN with
+ * state bootstrapping until the first catch-up with the topic, UNKNOWN with state stale while it
+ * has been lagging for longer than the allowed staleness or has not reported its lag for that
+ * long, UP otherwise. The replica is an optional cache whose role checks fall back to
+ * user-service, so it never reports DOWN and never takes the instance out of service; the
+ * probes use the liveness and readiness groups, which leave it out.
+ */
+@Component("roleReplica")
+@ConditionalOnProperty(name = "guest.role-replica.enabled", havingValue = "true")
+public class OrganizationRoleReplicaHealthIndicator implements HealthIndicator {
+
+    private final OrganizationRoleStore roleStore;
+
+    public OrganizationRoleReplicaHealthIndicator(OrganizationRoleStore roleStore) {
+        this.roleStore = roleStore;
+    }
+
+    @Override
+    public Health health() {
+        Instant now = Instant.now();
+        Health.Builder builder;
+        if (!roleStore.isReady()) {
+            builder = Health.unknown().withDetail("state", "bootstrapping");
+        } else if (roleStore.isStale(now)) {
+            builder = Health.unknown().withDetail("state", "stale");
+        } else {
+            builder = Health.up().withDetail("state", "serving");
+        }
+        builder.withDetail("subjects", roleStore.subjectCount())
+                .withDetail("lag", roleStore.lag())
+                .withDetail("maxStaleness", roleStore.maxStaleness().toString());
+        if (roleStore.caughtUpAt() != null) {
+            builder.withDetail("caughtUpAt", roleStore.caughtUpAt().toString());
+        }
+        if (roleStore.lastLagReportAt() != null) {
+            builder.withDetail("lastLagReportAt", roleStore.lastLagReportAt().toString());
+        }
+        if (roleStore.lastAppliedAt() != null) {
+            builder.withDetail("lastAppliedAt", roleStore.lastAppliedAt().toString());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,206 @@
+package com.planify.guest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.event.OrganizationRoleChanged;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Local replica of organization role memberships, fed from the role membership topic.
+ *
+ * Reads are lock-free map lookups. Writes come from the single replica consumer and are
+ * serialized with snapshots, so a snapshot always pairs the memberships with the offsets they
+ * were built from. The replica answers only after it has caught up with the topic once, and
+ * stops answering while it has been lagging for longer than {@code max-staleness}, or when no lag
+ * has been reported for that long (the consumer stopped or cannot fetch); callers then fall back
+ * to user-service.
+ */
+@Component
+@Slf4j
+public class OrganizationRoleStore {
+
+    private final ObjectMapper objectMapper;
+    private final Duration maxStaleness;
+    private final Map<String, Map<UUID, Set<String>>> memberships = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> nextOffsets = new ConcurrentHashMap<>();
+    private volatile Instant caughtUpAt;
+    private volatile Instant lastAppliedAt;
+    private volatile Instant lastLagReportAt;
+    private volatile long lag = -1;
+
+    public OrganizationRoleStore(ObjectMapper objectMapper,
+                                 @Value("${guest.role-replica.max-staleness:PT5M}") Duration maxStaleness) {
+        this.objectMapper = objectMapper;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * Roles of {@code subject} in the organization, or empty if the replica cannot answer: it is
+     * not caught up, it is stale, or it has never seen the subject. A seen subject without a
+     * membership in the organization gets an empty role set.
+     */
+    public Optional<Set<String>> findRoles(String subject, UUID orgId, Instant now) {
+        if (subject == null || !isServing(now)) {
+            return Optional.empty();
+        }
+        Map<UUID, Set<String>> organizations = memberships.get(subject);
+        if (organizations == null) {
+            return Optional.empty();
+        }
+        return Optional.of(organizations.getOrDefault(orgId, Set.of()));
+    }
+
+    /**
+     * Applies one record of the topic; {@code change} is null for tombstones and undecodable
+     * records, which only advance the offset.
+     */
+    public synchronized void apply(int partition, long offset, OrganizationRoleChanged change) {
+        if (change != null) {
+            memberships.compute(change.subject(), (subject, current) -> {
+                Map<UUID, Set<String>> next = current == null ? new HashMap<>() : new HashMap<>(current);
+                if (change.roles().isEmpty()) {
+                    next.remove(change.organizationId());
+                } else {
+                    next.put(change.organizationId(), normalize(change.roles()));
+                }
+                return Map.copyOf(next);
+            });
+            lastAppliedAt = Instant.now();
+        }
+        nextOffsets.put(partition, offset + 1);
+    }
+
+    /**
+     * Records the consumer lag after a poll; a lag of zero marks the replica as caught up.
+     */
+    public void recordLag(long lag, Instant now) {
+        this.lag = lag;
+        lastLagReportAt = now;
+        if (lag == 0) {
+            caughtUpAt = now;
+        }
+    }
+
+    public boolean isReady() {
+        return caughtUpAt != null;
+    }
+
+    /**
+     * Whether a caught-up replica can no longer be trusted: it has been lagging for longer than
+     * {@code max-staleness}, or the last lag report is that old, whatever lag it reported.
+     */
+    public boolean isStale(Instant now) {
+        if (caughtUpAt == null) {
+            return false;
+        }
+        return olderThanMaxStaleness(lastLagReportAt, now) || (lag > 0 && olderThanMaxStaleness(caughtUpAt, now));
+    }
+
+    public boolean isServing(Instant now) {
+        return isReady() && !isStale(now);
+    }
+
+    public OptionalLong nextOffset(int partition) {
+        Long offset = nextOffsets.get(partition);
+        return offset == null ? OptionalLong.empty() : OptionalLong.of(offset);
+    }
+
+    public Instant caughtUpAt() {
+        return caughtUpAt;
+    }
+
+    public Instant lastAppliedAt() {
+        return lastAppliedAt;
+    }
+
+    public Instant lastLagReportAt() {
+        return lastLagReportAt;
+    }
+
+    public long lag() {
+        return lag;
+    }
+
+    public Duration maxStaleness() {
+        return maxStaleness;
+    }
+
+    public int subjectCount() {
+        return memberships.size();
+    }
+
+    /**
+     * Writes memberships and offsets to {@code path} atomically (temp file, then rename).
+     */
+    public void writeSnapshot(Path path, String topic) throws IOException {
+        Snapshot snapshot;
+        synchronized (this) {
+            snapshot = new Snapshot(topic, Map.copyOf(nextOffsets), Map.copyOf(memberships));
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Restores memberships and offsets from a snapshot of the same topic. A missing, foreign or
+     * unreadable snapshot is ignored and the topic is replayed from the beginning instead.
+     *
+     * @return whether a snapshot was restored
+     */
+    public synchronized boolean loadSnapshot(Path path, String topic) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try {
+            Snapshot snapshot = objectMapper.readValue(path.toFile(), Snapshot.class);
+            if (!topic.equals(snapshot.topic())) {
+                log.warn("Ignoring role replica snapshot {} of topic {}, replica reads {}", path, snapshot.topic(), topic);
+                return false;
+            }
+            memberships.clear();
+            snapshot.memberships().forEach((subject, organizations) -> memberships.put(subject,
+                    organizations.entrySet().stream().collect(Collectors.toUnmodifiableMap(
+                            Map.Entry::getKey, entry -> normalize(entry.getValue())))));
+            nextOffsets.clear();
+            nextOffsets.putAll(snapshot.offsets());
+            log.info("Restored role replica snapshot {}: {} subjects, offsets {}", path, memberships.size(), nextOffsets);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable role replica snapshot {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean olderThanMaxStaleness(Instant at, Instant now) {
+        return Duration.between(at, now).compareTo(maxStaleness) > 0;
+    }
+
+    private static Set<String> normalize(Set<String> roles) {
+        return roles.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .map(String::toUpperCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    record Snapshot(String topic, Map<Integer, Long> offsets, Map<String, Map<UUID, Set<String>>> memberships) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.planify.guest.service;
+
+import com.planify.guest.model.OutboxMessage;
+import com.planify.guest.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Queues Kafka messages in the outbox table. The message commits or rolls back with the
+ * caller's transaction and is published afterwards by {@link com.planify.guest.event.OutboxRelay}.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, String payload) {
+        outboxRepository.save(OutboxMessage.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(payload)
+                .build());
+    }
+
+    /**
+     * Queues many messages with a single INSERT; the relay publishes them in list order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<OutboxMessage> messages) {
+        outboxRepository.insertAll(messages);
+    }
+}
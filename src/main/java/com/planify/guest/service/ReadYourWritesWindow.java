@@ -0,0 +1,90 @@
+package com.planify.guest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes guard for the read replica.
+ *
+ * A user whose RSVP committed less than {@code read-your-writes-window} ago reads their own
+ * invitations from the primary, so a lagging replica cannot show them their previous answer.
+ * {@link #read} marks the current thread, and the routing DataSource consults
+ * {@link #isPrimaryRequired()} when the read-only transaction fetches its connection.
+ * Without a replica nothing is recorded and reads run unchanged.
+ */
+@Component
+public class ReadYourWritesWindow {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final Cache<UUID, Boolean> recentWriters;
+    private final Counter primaryReads;
+
+    public ReadYourWritesWindow(MeterRegistry meterRegistry,
+                                @Value("${guest.datasource.replica.enabled:false}") boolean replicaEnabled,
+                                @Value("${guest.datasource.replica.read-your-writes-window:PT5S}") Duration window,
+                                @Value("${guest.datasource.replica.read-your-writes-maximum-size:100000}") long maximumSize) {
+        this.recentWriters = replicaEnabled && !window.isZero()
+                ? Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maximumSize).build()
+                : null;
+        this.primaryReads = Counter.builder("guest.datasource.read-your-writes")
+                .description("Read-only queries sent to the primary because the user wrote within the window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the window for {@code userId} once the current transaction commits (immediately
+     * outside a transaction); a rolled back write opens nothing.
+     */
+    public void recordWrite(UUID userId) {
+        if (recentWriters == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Runs {@code query} on the primary if {@code userId} is inside the window. Must be called
+     * before the transaction runs its first statement, which is when the connection is chosen.
+     */
+    public <T> T read(UUID userId, Supplier<T> query) {
+        if (recentWriters == null || recentWriters.getIfPresent(userId) == null) {
+            return query.get();
+        }
+        primaryReads.increment();
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+}
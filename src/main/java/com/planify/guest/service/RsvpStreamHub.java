@@ -0,0 +1,228 @@
+package com.planify.guest.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.dto.RsvpChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed RSVP changes to the Server-Sent Events subscribers of their event.
+ *
+ * Changes arrive after their transaction committed, so a rolled-back answer is never pushed.
+ * The committing thread only appends to each subscriber's buffer. The buffer holds at most
+ * guest.rsvp-stream.buffer-size changes; when a client reads too slowly, the oldest is dropped
+ * and counted in guest.rsvp.stream.dropped. A subscriber's buffer is written out on a virtual
+ * thread, one at a time, so a stalled connection parks only its own writer. An idle subscriber
+ * holds no thread at all, only its emitter and an empty buffer. Idle streams get a heartbeat
+ * comment so that proxies keep them open, and a failed heartbeat removes a client that
+ * disconnected.
+ *
+ * Only changes committed by this instance are pushed. A client that reconnects should reload the
+ * summary, because changes made while it was away are not replayed.
+ */
+@Component
+@Slf4j
+public class RsvpStreamHub {
+
+    private static final String EVENT_NAME = "rsvp";
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("rsvp-stream-", 0).factory());
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Counter droppedChanges;
+
+    public RsvpStreamHub(ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${guest.rsvp-stream.buffer-size:32}") int bufferSize,
+                         @Value("${guest.rsvp-stream.max-subscribers:10000}") int maxSubscribers,
+                         @Value("${guest.rsvp-stream.timeout:PT30M}") Duration timeout) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("guest.rsvp-stream.buffer-size must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.droppedChanges = Counter.builder("guest.rsvp.stream.dropped")
+                .description("RSVP changes dropped from the buffer of a slow stream subscriber")
+                .register(meterRegistry);
+        Gauge.builder("guest.rsvp.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open RSVP streams on this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the event's RSVP changes.
+     *
+     * @throws IllegalStateException when this instance already serves guest.rsvp-stream.max-subscribers streams
+     */
+    public SseEmitter subscribe(UUID eventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many RSVP streams open");
+        }
+        SseEmitter emitter = newEmitter(timeout);
+        Subscriber subscriber = new Subscriber(eventId, emitter);
+        // compute, not computeIfAbsent: unsubscribe may be dropping this event's empty set right now
+        subscribers.compute(eventId, (e, eventSubscribers) -> {
+            Set<Subscriber> set = eventSubscribers != null ? eventSubscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        // Sends the response headers right away, so the client knows it is connected
+        subscriber.offer(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRsvpChange(RsvpChange change) {
+        Set<Subscriber> eventSubscribers = subscribers.get(change.eventId());
+        if (eventSubscribers == null) {
+            return;
+        }
+        // Serialized once for all subscribers of the event
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize RSVP change of user {} in event {}: {}", change.userId(), change.eventId(),
+                    e.getMessage(), e);
+            return;
+        }
+        String id = Long.toString(sequence.incrementAndGet());
+        for (Subscriber subscriber : eventSubscribers) {
+            subscriber.offer(SseEmitter.event().id(id).name(EVENT_NAME).data(data));
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${guest.rsvp-stream.heartbeat-interval:PT20S}",
+            fixedDelayString = "${guest.rsvp-stream.heartbeat-interval:PT20S}")
+    public void heartbeat() {
+        subscribers.values().forEach(eventSubscribers -> eventSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    SseEmitter newEmitter(Duration timeout) {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    void close() {
+        subscribers.values().forEach(eventSubscribers -> eventSubscribers.forEach(s -> s.emitter.complete()));
+        writers.shutdown();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.eventId, (eventId, eventSubscribers) -> {
+            eventSubscribers.remove(subscriber);
+            return eventSubscribers.isEmpty() ? null : eventSubscribers;
+        });
+    }
+
+    private final class Subscriber {
+
+        private final UUID eventId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private boolean writing;
+
+        Subscriber(UUID eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            synchronized (this) {
+                if (buffer.size() == bufferSize) {
+                    buffer.pollFirst();
+                    droppedChanges.increment();
+                }
+                buffer.addLast(event);
+                if (writing) {
+                    return;
+                }
+                writing = true;
+            }
+            writers.execute(this::write);
+        }
+
+        // Only an idle stream needs one; a buffered change keeps the connection busy anyway
+        void heartbeat() {
+            synchronized (this) {
+                if (writing || !buffer.isEmpty()) {
+                    return;
+                }
+            }
+            offer(SseEmitter.event().comment("heartbeat"));
+        }
+
+        private void write() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        writing = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the emitter completed; the container completes it
+                    log.debug("RSVP stream for event {} closed: {}", eventId, e.toString());
+                    synchronized (this) {
+                        buffer.clear();
+                        writing = false;
+                    }
+                    unsubscribe(this);
+                    return;
+                }
+            }
+        }
+    }
+}
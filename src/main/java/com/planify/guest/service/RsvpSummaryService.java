@@ -0,0 +1,179 @@
+package com.planify.guest.service;
+
+import com.planify.guest.model.EventRsvpSummary;
+import com.planify.guest.model.Invitation.RsvpStatus;
+import com.planify.guest.repository.EventRsvpSummaryRepository;
+import com.planify.guest.repository.EventRsvpSummaryRepositoryCustom.RsvpDelta;
+import com.planify.guest.repository.InvitationRepositoryCustom.RsvpTransition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the per-event RSVP counters in event_rsvp_summary.
+ *
+ * Counters are changed with relative deltas inside the caller's transaction, so they commit
+ * or roll back together with the invitation change that caused them. A scheduled job
+ * periodically rebuilds them from the invitations table and reports any drift.
+ *
+ * Every transition is also counted in guest.rsvp.transitions, tagged by the statuses it moved
+ * from and to ("none" for a new or removed invitation), once its transaction has committed.
+ */
+@Service
+@Slf4j
+public class RsvpSummaryService {
+
+    private static final int LOGGED_DRIFTED_EVENTS = 20;
+    private static final String NO_STATUS = "none";
+
+    private final EventRsvpSummaryRepository summaryRepository;
+    private final MeterRegistry meterRegistry;
+    private final Counter driftedEvents;
+
+    public RsvpSummaryService(EventRsvpSummaryRepository summaryRepository, MeterRegistry meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.meterRegistry = meterRegistry;
+        this.driftedEvents = Counter.builder("guest.rsvp.summary.drift")
+                .description("Events whose RSVP counters were corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    public EventRsvpSummary getSummary(UUID eventId) {
+        return summaryRepository.findById(eventId)
+                .orElseGet(() -> EventRsvpSummary.empty(eventId));
+    }
+
+    /**
+     * Moves one invitation between counters. {@code from} is null for a new invitation and
+     * {@code to} is null for a removed one.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(UUID eventId, RsvpStatus from, RsvpStatus to) {
+        if (from == to) {
+            return;
+        }
+        RsvpDelta delta = delta(from, to);
+        summaryRepository.applyDelta(eventId, delta.pending(), delta.accepted(), delta.declined(), delta.maybe());
+        countTransitions(Map.of(new StatusChange(from, to), 1));
+    }
+
+    /**
+     * Applies many RSVP transitions with one statement; unchanged ones are skipped.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(Collection<RsvpTransition> transitions) {
+        Map<UUID, RsvpDelta> deltas = new HashMap<>();
+        Map<StatusChange, Integer> changes = new HashMap<>();
+        for (RsvpTransition transition : transitions) {
+            if (transition.changed()) {
+                RsvpStatus from = transition.previousStatus();
+                RsvpStatus to = transition.invitation().getRsvpStatus();
+                deltas.merge(transition.invitation().getEventId(), delta(from, to), RsvpDelta::plus);
+                changes.merge(new StatusChange(from, to), 1, Integer::sum);
+            }
+        }
+        summaryRepository.applyDeltas(deltas);
+        countTransitions(changes);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInvited(Map<UUID, Integer> createdPerEvent) {
+        summaryRepository.addPending(createdPerEvent);
+        int created = createdPerEvent.values().stream().mapToInt(Integer::intValue).sum();
+        if (created > 0) {
+            countTransitions(Map.of(new StatusChange(null, RsvpStatus.PENDING), created));
+        }
+    }
+
+    @Transactional
+    public void deleteSummary(UUID eventId) {
+        summaryRepository.deleteByEventId(eventId);
+    }
+
+    /**
+     * Rebuilds all counters from the invitations table and corrects the rows that differ.
+     *
+     * The correction is applied as a delta on top of the row, so an RSVP change that commits
+     * while the job runs is kept and neither side fails; the job completes under steady traffic.
+     *
+     * @return number of events whose counters had drifted
+     */
+    @Scheduled(
+            initialDelayString = "${guest.rsvp-summary.reconciliation.initial-delay:PT5M}",
+            fixedDelayString = "${guest.rsvp-summary.reconciliation.interval:PT1H}")
+    @Transactional
+    public int reconcile() {
+        List<UUID> drifted;
+        try {
+            drifted = summaryRepository.reconcile();
+        } catch (DataAccessException e) {
+            log.warn("RSVP summary reconciliation did not complete, retrying on next run: {}", e.getMessage());
+            throw e;
+        }
+
+        if (drifted.isEmpty()) {
+            log.debug("RSVP summary reconciliation found no drift");
+            return 0;
+        }
+
+        driftedEvents.increment(drifted.size());
+        log.warn("RSVP summary reconciliation corrected {} events: {}{}", drifted.size(),
+                drifted.subList(0, Math.min(drifted.size(), LOGGED_DRIFTED_EVENTS)),
+                drifted.size() > LOGGED_DRIFTED_EVENTS ? " ..." : "");
+        return drifted.size();
+    }
+
+    // Counted after commit, so a rolled-back or redelivered batch is not counted twice
+    private void countTransitions(Map<StatusChange, Integer> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.forEach(RsvpSummaryService.this::countTransition);
+                }
+            });
+        } else {
+            changes.forEach(this::countTransition);
+        }
+    }
+
+    private void countTransition(StatusChange change, int count) {
+        Counter.builder("guest.rsvp.transitions")
+                .description("Committed invitation RSVP status changes")
+                .tag("from", change.from() == null ? NO_STATUS : change.from().name())
+                .tag("to", change.to() == null ? NO_STATUS : change.to().name())
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    private static RsvpDelta delta(RsvpStatus from, RsvpStatus to) {
+        return new RsvpDelta(
+                delta(RsvpStatus.PENDING, from, to),
+                delta(RsvpStatus.ACCEPTED, from, to),
+                delta(RsvpStatus.DECLINED, from, to),
+                delta(RsvpStatus.MAYBE, from, to));
+    }
+
+    private static int delta(RsvpStatus counter, RsvpStatus from, RsvpStatus to) {
+        return (counter == to ? 1 : 0) - (counter == from ? 1 : 0);
+    }
+
+    private record StatusChange(RsvpStatus from, RsvpStatus to) {
+    }
+}
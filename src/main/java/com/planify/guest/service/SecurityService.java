@@ -1,42 +1,59 @@
 package com.planify.guest.service;
 
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientResponseException;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SecurityService {
 
-    private final RestTemplateBuilder restTemplateBuilder;
-
-    @Value("${user.service.base-url:http://localhost:8082}")
-    private String userServiceBaseUrl;
+    private final UserServiceClient userServiceClient;
+    private final AsyncCache<OrganizationRoleKey, RoleLookup> organizationRoleCache;
+    private final OrganizationRoleStore organizationRoleStore;
+    private final String orgRolesClaim;
+    private final Counter resolvedFromToken;
+    private final Counter resolvedFromReplica;
+    private final Counter resolvedFromUserService;
+
+    public SecurityService(UserServiceClient userServiceClient,
+                           AsyncCache<OrganizationRoleKey, RoleLookup> organizationRoleCache,
+                           OrganizationRoleStore organizationRoleStore,
+                           MeterRegistry meterRegistry,
+                           @Value("${user.service.org-roles-claim:org_roles}") String orgRolesClaim) {
+        this.userServiceClient = userServiceClient;
+        this.organizationRoleCache = organizationRoleCache;
+        this.organizationRoleStore = organizationRoleStore;
+        this.orgRolesClaim = orgRolesClaim == null || orgRolesClaim.isBlank() ? null : orgRolesClaim;
+        this.resolvedFromToken = resolutionCounter(meterRegistry, "jwt");
+        this.resolvedFromReplica = resolutionCounter(meterRegistry, "replica");
+        this.resolvedFromUserService = resolutionCounter(meterRegistry, "user-service");
+    }
 
     /**
-     * Calls user-service to retrieve roles of the currently authenticated user within the given organization
-     * and checks whether the user has at least one of the required roles.
-     * 
-     * User-service endpoint: GET {userServiceBaseUrl}/{orgId}/roles -> returns JSON array of strings.
+     * Checks whether the currently authenticated user has at least one of the required roles
+     * within the given organization.
+     *
+     * If the token carries the organization roles claim (a map of orgId to role names), it is
+     * authoritative and no remote call is made; an organization missing from the map has no roles.
+     * Next comes the Kafka-fed {@link OrganizationRoleStore}, for subjects it has seen while it is
+     * up to date. Otherwise roles are fetched from user-service and cached per (token subject, orgId).
+     * Concurrent misses for the same key share a single in-flight call, and failed lookups are
+     * cached for a short time so an unavailable user-service is not hammered by every request.
      */
-    @Retry(name = "keycloakService")
-    @Bulkhead(name = "keycloakService")
-    @CircuitBreaker(name = "keycloakService", fallbackMethod = "hasAnyRoleInOrganizationFallback")
     public boolean hasAnyRoleInOrganization(UUID orgId, Collection<String> requiredRoles) {
         if (orgId == null) {
             log.warn("Organization ID is null when checking roles.");
@@ -47,70 +64,127 @@ public class SecurityService {
             return false;
         }
 
-        try {
-            RestTemplate rt = restTemplateBuilder.build();
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-            String token = resolveBearerToken();
-            if (token != null && !token.isBlank()) {
-                headers.setBearerAuth(token);
-            } else {
-                log.warn("No bearer token found in security context; calling user-service without Authorization header.");
+        Set<String> userRoles = resolveOrganizationRoles(orgId);
+
+        Set<String> required = requiredRoles.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .map(String::toUpperCase)
+                .collect(Collectors.toSet());
+
+        boolean match = required.stream().anyMatch(userRoles::contains);
+        if (!match) {
+            log.info("User does not have required roles {} in organization {}. User roles: {}", required, orgId, userRoles);
+        }
+        return match;
+    }
+
+    private Set<String> resolveOrganizationRoles(UUID orgId) {
+        Jwt jwt = resolveJwt();
+        Map<String, Object> tokenRoles = jwt != null && orgRolesClaim != null ? readOrgRolesClaim(jwt) : null;
+        if (tokenRoles != null) {
+            resolvedFromToken.increment();
+            return normalizeRoles(tokenRoles.get(orgId.toString()));
+        }
+        if (jwt != null) {
+            Optional<Set<String>> replicaRoles = organizationRoleStore.findRoles(jwt.getSubject(), orgId, Instant.now());
+            if (replicaRoles.isPresent()) {
+                resolvedFromReplica.increment();
+                return replicaRoles.get();
             }
+        }
 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            String url = String.format("%s/api/auth/%s/roles", trimTrailingSlash(userServiceBaseUrl), orgId);
+        resolvedFromUserService.increment();
+        if (jwt == null || jwt.getSubject() == null) {
+            // Without a subject there is no safe cache key
+            return fetchOrganizationRoles(orgId, jwt != null ? jwt.getTokenValue() : null).roles();
+        }
 
-            ResponseEntity<String[]> response = rt.exchange(url, HttpMethod.GET, entity, String[].class);
-            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                log.warn("User-service roles call returned status {} with empty or null body.", response.getStatusCode());
-                return false;
+        OrganizationRoleKey key = new OrganizationRoleKey(jwt.getSubject(), orgId);
+        CompletableFuture<RoleLookup> pending = new CompletableFuture<>();
+        CompletableFuture<RoleLookup> lookup = organizationRoleCache.get(key, (k, executor) -> pending);
+        if (lookup == pending) {
+            // This thread won the race for the key: load on the caller thread, waiters join the future
+            try {
+                pending.complete(fetchOrganizationRoles(orgId, jwt.getTokenValue()));
+            } finally {
+                // Never leave waiters blocked on a future that will not complete
+                pending.complete(RoleLookup.unavailable());
             }
+        }
+        return lookup.join().roles();
+    }
 
-            Set<String> userRoles = Arrays.stream(response.getBody())
-                    .filter(Objects::nonNull)
-                    .map(String::trim)
-                    .map(String::toUpperCase)
-                    .collect(Collectors.toSet());
+    private Map<String, Object> readOrgRolesClaim(Jwt jwt) {
+        if (!jwt.hasClaim(orgRolesClaim)) {
+            return null;
+        }
+        Object claim = jwt.getClaim(orgRolesClaim);
+        if (claim instanceof Map<?, ?> map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> orgRoles = (Map<String, Object>) map;
+            return orgRoles;
+        }
+        log.warn("Ignoring malformed {} claim of type {} for subject {}", orgRolesClaim,
+                claim == null ? "null" : claim.getClass().getSimpleName(), jwt.getSubject());
+        return null;
+    }
 
-            Set<String> required = requiredRoles.stream()
+    private static Set<String> normalizeRoles(Object roles) {
+        if (roles instanceof Collection<?> values) {
+            return values.stream()
                     .filter(Objects::nonNull)
-                    .map(String::trim)
-                    .map(String::toUpperCase)
-                    .collect(Collectors.toSet());
+                    .map(value -> value.toString().trim().toUpperCase())
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+        if (roles instanceof String value) {
+            return Set.of(value.trim().toUpperCase());
+        }
+        return Set.of();
+    }
 
-            boolean match = required.stream().anyMatch(userRoles::contains);
-            if (!match) {
-                log.info("User does not have required roles {} in organization {}. User roles: {}", required, orgId, userRoles);
-            }
-            return match;
+    private static Counter resolutionCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("guest.authz.org-roles.resolved")
+                .description("Organization role checks by where the roles came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private RoleLookup fetchOrganizationRoles(UUID orgId, String token) {
+        try {
+            return RoleLookup.of(userServiceClient.getOrganizationRoles(orgId, token));
         } catch (RestClientResponseException ex) {
-            log.error("User-service responded with error: status={}, body={}", ex.getRawStatusCode(), ex.getResponseBodyAsString());
-            return false;
+            log.error("User-service responded with error: status={}, body={}", ex.getStatusCode().value(), ex.getResponseBodyAsString());
+            return RoleLookup.unavailable();
         } catch (Exception ex) {
-            log.error("Error while checking organization roles via user-service: {}", ex.getMessage(), ex);
-            return false;
+            // Privzeto zavrni dostop, če ne moremo preveriti vlog
+            log.error("User-service is unavailable. Denying organization roles check. OrgId: {}, Error: {}", orgId, ex.getMessage());
+            return RoleLookup.unavailable();
         }
     }
 
-    private boolean hasAnyRoleInOrganizationFallback(UUID orgId, Collection<String> requiredRoles, Exception ex) {
-        log.error("User-service is unavailable. Falling back for organization roles check. OrgId: {}, Error: {}", 
-                  orgId, ex.getMessage());
-        // Privzeto zavrni dostop, če ne moremo preveriti vlog
-        return false;
-    }
-
-    private String resolveBearerToken() {
+    private Jwt resolveJwt() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication instanceof JwtAuthenticationToken jwtAuth) {
-            return jwtAuth.getToken().getTokenValue();
+            return jwtAuth.getToken();
         }
         return null;
     }
 
-    private String trimTrailingSlash(String base) {
-        if (base == null) return "";
-        return base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    public record OrganizationRoleKey(String subject, UUID orgId) {
+    }
+
+    /**
+     * Result of a role lookup; {@code failed} lookups are denied and cached with the negative TTL.
+     */
+    public record RoleLookup(Set<String> roles, boolean failed) {
+
+        static RoleLookup of(Set<String> roles) {
+            return new RoleLookup(Set.copyOf(roles), false);
+        }
+
+        static RoleLookup unavailable() {
+            return new RoleLookup(Set.of(), true);
+        }
     }
 }
@@ -0,0 +1,59 @@
+package com.planify.guest.service;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Remote calls to user-service. Failures are propagated so that the Resilience4j
+ * retry, bulkhead and circuit breaker around them can see and count them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserServiceClient {
+
+    // Pooled client rooted at user.service.base-url, see UserServiceClientConfig
+    private final RestTemplate userServiceRestTemplate;
+
+    /**
+     * Returns the roles (trimmed, upper case) of the token's user within the organization.
+     *
+     * User-service endpoint: GET {user.service.base-url}/api/auth/{orgId}/roles -> returns JSON array of strings.
+     */
+    @Retry(name = "keycloakService")
+    @Bulkhead(name = "keycloakService")
+    @CircuitBreaker(name = "keycloakService")
+    public Set<String> getOrganizationRoles(UUID orgId, String bearerToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        if (bearerToken != null && !bearerToken.isBlank()) {
+            headers.setBearerAuth(bearerToken);
+        } else {
+            log.warn("No bearer token found in security context; calling user-service without Authorization header.");
+        }
+
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+        ResponseEntity<String[]> response = userServiceRestTemplate.exchange(
+                "/api/auth/{orgId}/roles", HttpMethod.GET, entity, String[].class, orgId);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            log.warn("User-service roles call returned status {} with empty or null body.", response.getStatusCode());
+            return Set.of();
+        }
+
+        return Arrays.stream(response.getBody())
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .map(String::toUpperCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,4 @@
+-- Composite indexes for keyset pagination ordered by (invitation_received_at, id)
+CREATE INDEX idx_invitations_event_received ON invitations(event_id, invitation_received_at, id);
+CREATE INDEX idx_invitations_user_received ON invitations(user_id, invitation_received_at, id);
+CREATE INDEX idx_invitations_organization_received ON invitations(organization_id, invitation_received_at, id);
@@ -0,0 +1,22 @@
+-- Per-event RSVP counters, maintained incrementally alongside invitations
+CREATE TABLE event_rsvp_summary (
+    event_id UUID PRIMARY KEY,
+
+    pending_count INTEGER NOT NULL DEFAULT 0,
+    accepted_count INTEGER NOT NULL DEFAULT 0,
+    declined_count INTEGER NOT NULL DEFAULT 0,
+    maybe_count INTEGER NOT NULL DEFAULT 0,
+
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO event_rsvp_summary (event_id, pending_count, accepted_count, declined_count, maybe_count)
+SELECT event_id,
+       count(*) FILTER (WHERE rsvp_status = 'PENDING'),
+       count(*) FILTER (WHERE rsvp_status = 'ACCEPTED'),
+       count(*) FILTER (WHERE rsvp_status = 'DECLINED'),
+       count(*) FILTER (WHERE rsvp_status = 'MAYBE')
+FROM invitations
+GROUP BY event_id;
+
+COMMENT ON TABLE event_rsvp_summary IS 'Materialised RSVP counts per event, rebuilt from invitations by the reconciliation job';
@@ -0,0 +1,11 @@
+-- Transactional outbox: messages are written with the business change and relayed to Kafka after commit
+CREATE TABLE outbox (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE outbox IS 'Kafka messages pending relay; rows are deleted once the broker acknowledged them';
+COMMENT ON COLUMN outbox.message_key IS 'Kafka record key (event id), keeps messages of one event on one partition';
@@ -0,0 +1,13 @@
+-- Composite indexes for the status-filtered lookups (findByUserIdAndRsvpStatus,
+-- findByEventIdAndRsvpStatus); (event_id, rsvp_status) also lets the RSVP summary
+-- reconciliation count statuses per event from the index alone
+CREATE INDEX idx_invitations_user_status ON invitations(user_id, rsvp_status);
+CREATE INDEX idx_invitations_event_status ON invitations(event_id, rsvp_status);
+
+-- Single-column indexes made redundant by indexes with the same leading column:
+-- event_id by UNIQUE(event_id, user_id), user_id and organization_id by the keyset indexes.
+-- rsvp_status alone is too unselective to be used and only slowed down writes.
+DROP INDEX idx_invitations_event;
+DROP INDEX idx_invitations_user;
+DROP INDEX idx_invitations_organization;
+DROP INDEX idx_invitations_rsvp_status;
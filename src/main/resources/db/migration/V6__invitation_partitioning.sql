@@ -0,0 +1,173 @@
+-- Opt-in move of invitations to a table hash-partitioned by event_id, done online:
+--
+--   1. prepare_invitations_partitioning(n) creates invitations_partitioned with n hash
+--      partitions and a trigger that mirrors every write on invitations into it
+--   2. backfill_partitioned_invitations(batch) copies existing rows in id order, one short
+--      transaction per batch, until it returns 0
+--   3. swap_partitioned_invitations() copies what is left under a brief exclusive lock and
+--      renames the partitioned table to invitations; the old table stays as
+--      invitations_unpartitioned until it is dropped by hand
+--
+-- Nothing happens until step 1 is called (InvitationPartitionBackfill runs all three when
+-- guest.partitioning.backfill.enabled is set). event_id is the partition key because
+-- UNIQUE(event_id, user_id), which the inserts rely on, must contain it; the primary key
+-- becomes (id, event_id) for the same reason. Functions keep the search_path of this
+-- migration so the mirror trigger resolves the same tables from every session.
+
+CREATE FUNCTION prepare_invitations_partitioning(partition_count INTEGER) RETURNS BOOLEAN
+LANGUAGE plpgsql
+SET search_path FROM CURRENT
+AS $$
+DECLARE
+    remainder INTEGER;
+BEGIN
+    IF partition_count < 2 THEN
+        RAISE EXCEPTION 'invitations need at least 2 partitions, got %', partition_count;
+    END IF;
+    IF to_regclass('invitations_partitioned') IS NOT NULL
+            OR EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'invitations'::regclass) THEN
+        RETURN false;
+    END IF;
+
+    CREATE TABLE invitations_partitioned (
+        LIKE invitations INCLUDING DEFAULTS INCLUDING COMMENTS,
+        CONSTRAINT invitations_partitioned_pkey PRIMARY KEY (id, event_id),
+        CONSTRAINT invitations_partitioned_event_id_user_id_key UNIQUE (event_id, user_id)
+    ) PARTITION BY HASH (event_id);
+
+    FOR remainder IN 0 .. partition_count - 1 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF invitations_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       'invitations_p' || remainder, partition_count, remainder);
+    END LOOP;
+
+    -- Same secondary indexes as invitations (V2, V5), renamed by the swap
+    CREATE INDEX idx_invitations_event_received_p ON invitations_partitioned(event_id, invitation_received_at, id);
+    CREATE INDEX idx_invitations_user_received_p ON invitations_partitioned(user_id, invitation_received_at, id);
+    CREATE INDEX idx_invitations_organization_received_p ON invitations_partitioned(organization_id, invitation_received_at, id);
+    CREATE INDEX idx_invitations_user_status_p ON invitations_partitioned(user_id, rsvp_status);
+    CREATE INDEX idx_invitations_event_status_p ON invitations_partitioned(event_id, rsvp_status);
+
+    CREATE TABLE invitations_partitioning_progress (
+        id BOOLEAN PRIMARY KEY DEFAULT true CHECK (id),
+        partition_count INTEGER NOT NULL,
+        last_id UUID,
+        copied_rows BIGINT NOT NULL DEFAULT 0,
+        prepared_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        swapped_at TIMESTAMP
+    );
+    INSERT INTO invitations_partitioning_progress (partition_count) VALUES (partition_count);
+
+    -- Waits for in-flight writers, so every row is either committed before the backfill
+    -- starts or written through the trigger
+    CREATE TRIGGER invitations_mirror_to_partitioned
+        AFTER INSERT OR UPDATE OR DELETE ON invitations
+        FOR EACH ROW EXECUTE FUNCTION mirror_invitation_to_partitioned();
+    RETURN true;
+END;
+$$;
+
+-- Updates and deletes of rows the backfill has not reached yet match nothing here; the
+-- backfill copies their current version later
+CREATE FUNCTION mirror_invitation_to_partitioned() RETURNS TRIGGER
+LANGUAGE plpgsql
+SET search_path FROM CURRENT
+AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO invitations_partitioned VALUES (NEW.*) ON CONFLICT DO NOTHING;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE invitations_partitioned
+        SET user_id = NEW.user_id,
+            organization_id = NEW.organization_id,
+            rsvp_status = NEW.rsvp_status,
+            responded_at = NEW.responded_at,
+            invitation_received_at = NEW.invitation_received_at
+        WHERE id = OLD.id AND event_id = OLD.event_id;
+    ELSE
+        DELETE FROM invitations_partitioned WHERE id = OLD.id AND event_id = OLD.event_id;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Copies the next batch_size rows after the recorded position. The rows are share-locked, so
+-- a concurrent update or delete either finishes first (and the batch copies its result) or
+-- waits for the batch to commit (and the trigger then finds the copied row).
+CREATE FUNCTION backfill_partitioned_invitations(batch_size INTEGER) RETURNS INTEGER
+LANGUAGE plpgsql
+SET search_path FROM CURRENT
+AS $$
+DECLARE
+    resume_after UUID;
+    copied INTEGER;
+    next_resume_after UUID;
+BEGIN
+    IF to_regclass('invitations_partitioned') IS NULL THEN
+        RETURN 0;
+    END IF;
+    SELECT last_id INTO resume_after FROM invitations_partitioning_progress FOR UPDATE;
+
+    WITH batch AS (
+        SELECT * FROM invitations
+        WHERE resume_after IS NULL OR id > resume_after
+        ORDER BY id
+        LIMIT batch_size
+        FOR SHARE
+    ), inserted AS (
+        INSERT INTO invitations_partitioned SELECT * FROM batch ON CONFLICT DO NOTHING
+    )
+    SELECT count(*), (array_agg(id ORDER BY id DESC))[1] INTO copied, next_resume_after FROM batch;
+
+    IF copied > 0 THEN
+        UPDATE invitations_partitioning_progress
+        SET last_id = next_resume_after, copied_rows = copied_rows + copied;
+    END IF;
+    RETURN copied;
+END;
+$$;
+
+-- Blocks invitations only for the final catch-up and the renames; lock_timeout makes the swap
+-- give up (and the caller retry later) instead of queueing all traffic behind a long query
+CREATE FUNCTION swap_partitioned_invitations(lock_wait INTERVAL DEFAULT '5 seconds') RETURNS BOOLEAN
+LANGUAGE plpgsql
+SET search_path FROM CURRENT
+AS $$
+DECLARE
+    resume_after UUID;
+    index_name TEXT;
+BEGIN
+    IF to_regclass('invitations_partitioned') IS NULL THEN
+        RETURN false;
+    END IF;
+    PERFORM set_config('lock_timeout', (extract(epoch FROM lock_wait) * 1000)::BIGINT::TEXT, true);
+    LOCK TABLE invitations IN ACCESS EXCLUSIVE MODE;
+
+    SELECT last_id INTO resume_after FROM invitations_partitioning_progress FOR UPDATE;
+    INSERT INTO invitations_partitioned
+    SELECT * FROM invitations WHERE resume_after IS NULL OR id > resume_after
+    ON CONFLICT DO NOTHING;
+
+    DROP TRIGGER invitations_mirror_to_partitioned ON invitations;
+
+    ALTER TABLE invitations RENAME TO invitations_unpartitioned;
+    ALTER TABLE invitations_unpartitioned RENAME CONSTRAINT invitations_pkey TO invitations_unpartitioned_pkey;
+    ALTER TABLE invitations_unpartitioned RENAME CONSTRAINT invitations_event_id_user_id_key
+        TO invitations_unpartitioned_event_id_user_id_key;
+
+    ALTER TABLE invitations_partitioned RENAME TO invitations;
+    ALTER TABLE invitations RENAME CONSTRAINT invitations_partitioned_pkey TO invitations_pkey;
+    ALTER TABLE invitations RENAME CONSTRAINT invitations_partitioned_event_id_user_id_key
+        TO invitations_event_id_user_id_key;
+
+    FOREACH index_name IN ARRAY ARRAY['idx_invitations_event_received', 'idx_invitations_user_received',
+            'idx_invitations_organization_received', 'idx_invitations_user_status', 'idx_invitations_event_status'] LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', index_name, index_name || '_unpartitioned');
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', index_name || '_p', index_name);
+    END LOOP;
+
+    COMMENT ON TABLE invitations IS 'Guest invitations and RSVP tracking (guest perspective), hash-partitioned by event_id';
+    COMMENT ON TABLE invitations_unpartitioned IS 'Invitations before the move to hash partitions; no longer written, drop once the partitioned table is trusted';
+    UPDATE invitations_partitioning_progress SET swapped_at = CURRENT_TIMESTAMP;
+    RETURN true;
+END;
+$$;
@@ -0,0 +1,96 @@
+package com.planify.guest.config;
+
+import com.planify.guest.service.ReadYourWritesWindow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceRoutingConfigTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    @BeforeEach
+    void setUp() {
+        DataSource routing = DataSourceRoutingConfig.routingDataSource(h2("primary"), h2("replica"));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readYourWritesWindow = new ReadYourWritesWindow(new SimpleMeterRegistry(), true, Duration.ofSeconds(5), 100);
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        // When
+        String database = readOnly.execute(status -> database());
+
+        // Then
+        assertThat(database).isEqualTo("REPLICA");
+    }
+
+    @Test
+    void readWriteTransactionAndPlainStatements_ShouldUsePrimary() {
+        // When
+        String inTransaction = readWrite.execute(status -> database());
+        String withoutTransaction = database();
+
+        // Then
+        assertThat(inTransaction).isEqualTo("PRIMARY");
+        assertThat(withoutTransaction).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    void readOnlyTransaction_InsideReadYourWritesWindow_ShouldUsePrimary() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        readWrite.executeWithoutResult(status -> readYourWritesWindow.recordWrite(userId));
+
+        // When
+        String writer = readOnly.execute(status -> readYourWritesWindow.read(userId, this::database));
+        String otherUser = readOnly.execute(status -> readYourWritesWindow.read(UUID.randomUUID(), this::database));
+
+        // Then
+        assertThat(writer).isEqualTo("PRIMARY");
+        assertThat(otherUser).isEqualTo("REPLICA");
+    }
+
+    @Test
+    void rolledBackWrite_ShouldNotOpenReadYourWritesWindow() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        readWrite.executeWithoutResult(status -> {
+            readYourWritesWindow.recordWrite(userId);
+            status.setRollbackOnly();
+        });
+
+        // When
+        String database = readOnly.execute(status -> readYourWritesWindow.read(userId, this::database));
+
+        // Then
+        assertThat(database).isEqualTo("REPLICA");
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class).toUpperCase();
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
@@ -0,0 +1,110 @@
+package com.planify.guest.event;
+
+import com.planify.guest.event.BatchCompactor.Compacted;
+import com.planify.guest.event.BatchCompactor.Polled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchCompactorTest {
+
+    private final UUID eventId = UUID.randomUUID();
+    private final UUID organizationId = UUID.randomUUID();
+    private final List<Polled> polled = new ArrayList<>();
+
+    @Test
+    void compact_InviteThenRemove_ShouldOnlyRemove() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        add("guest-invited", 0, 100, invite(userId));
+        add("guest-invited", 0, 101, invite(userId));
+        add("guest-removed", 0, 102, new GuestRemoved(eventId, userId));
+
+        // When
+        Compacted compacted = BatchCompactor.compact(polled);
+
+        // Then
+        assertThat(compacted.invites()).isEmpty();
+        assertThat(compacted.removals()).containsExactly(new GuestRemoved(eventId, userId));
+        assertThat(compacted.avoided()).isEqualTo(Map.of("guest-invited", 2));
+    }
+
+    @Test
+    void compact_RemoveThenInvite_ShouldKeepBothSoTheAnswerIsReset() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        add("guest-removed", 0, 100, new GuestRemoved(eventId, userId));
+        add("guest-invited", 0, 101, invite(userId));
+
+        // When
+        Compacted compacted = BatchCompactor.compact(polled);
+
+        // Then
+        assertThat(compacted.removals()).containsExactly(new GuestRemoved(eventId, userId));
+        assertThat(compacted.invites()).containsExactly(invite(userId));
+        assertThat(compacted.avoided()).isEmpty();
+    }
+
+    @Test
+    void compact_EventDeleted_ShouldSupersedeEarlierRecordsOfTheEvent() {
+        // Given
+        UUID otherEventId = UUID.randomUUID();
+        UUID lateGuest = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            add("guest-invited", 0, 100 + i, invite(UUID.randomUUID()));
+        }
+        add("guest-removed", 0, 103, new GuestRemoved(eventId, UUID.randomUUID()));
+        GuestInvited otherInvite = new GuestInvited(otherEventId, UUID.randomUUID(), organizationId);
+        add("guest-invited", 0, 104, otherInvite);
+        add("event-deleted", 0, 105, new EventDeleted(eventId));
+        add("event-deleted", 0, 106, new EventDeleted(eventId));
+        add("guest-removed", 0, 107, new GuestRemoved(eventId, lateGuest));
+        add("guest-invited", 0, 108, invite(lateGuest));
+
+        // When
+        Compacted compacted = BatchCompactor.compact(polled);
+
+        // Then
+        assertThat(compacted.deletions()).containsExactly(new EventDeleted(eventId));
+        assertThat(compacted.removals()).isEmpty();
+        assertThat(compacted.invites()).containsExactlyInAnyOrder(otherInvite, invite(lateGuest));
+        assertThat(compacted.writes()).isEqualTo(3);
+        assertThat(compacted.avoided()).isEqualTo(Map.of("guest-invited", 3, "guest-removed", 2, "event-deleted", 1));
+    }
+
+    @Test
+    void compact_ShouldOrderTopicsByTimestampButKeepOffsetOrderWithinAPartition() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID skewedUser = UUID.randomUUID();
+        // Polled first but produced after the invitation on the other topic
+        add("guest-removed", 0, 200, new GuestRemoved(eventId, userId));
+        add("guest-invited", 1, 100, invite(userId));
+        // Appended after a record from 300, so produced after the removal despite its timestamp
+        add("guest-removed", 0, 210, new GuestRemoved(eventId, skewedUser));
+        add("guest-invited", 1, 300, invite(UUID.randomUUID()));
+        add("guest-invited", 1, 150, invite(skewedUser));
+
+        // When
+        Compacted compacted = BatchCompactor.compact(polled);
+
+        // Then
+        assertThat(compacted.removals()).containsExactlyInAnyOrder(
+                new GuestRemoved(eventId, userId), new GuestRemoved(eventId, skewedUser));
+        assertThat(compacted.invites()).hasSize(2).contains(invite(skewedUser));
+        assertThat(compacted.avoided()).isEqualTo(Map.of("guest-invited", 1));
+    }
+
+    private GuestInvited invite(UUID userId) {
+        return new GuestInvited(eventId, userId, organizationId);
+    }
+
+    private void add(String topic, int partition, long timestamp, GuestEvent event) {
+        polled.add(new Polled(polled.size(), topic, partition, timestamp, event));
+    }
+}
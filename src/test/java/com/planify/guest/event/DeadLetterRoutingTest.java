@@ -0,0 +1,112 @@
+package com.planify.guest.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadLetterRoutingTest {
+
+    private static final Duration DELAY = Duration.ofSeconds(30);
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeadLetterRouting routing;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new DeadLetterRouting(meterRegistry, 2, DELAY);
+    }
+
+    @Test
+    void destination_DatabaseFailure_ShouldGoToRetryTopicUntilAttemptsAreUsedUp() {
+        // Given
+        Exception failure = listenerFailure(new QueryTimeoutException("timeout"));
+        ConsumerRecord<String, byte[]> polled = record("guest-invited");
+        ConsumerRecord<String, byte[]> firstRetry = retried(polled, failure);
+        ConsumerRecord<String, byte[]> secondRetry = retried(firstRetry, failure);
+
+        // When
+        TopicPartition fromSource = routing.destination(polled, failure);
+        TopicPartition fromFirstRetry = routing.destination(firstRetry, failure);
+        TopicPartition fromSecondRetry = routing.destination(secondRetry, failure);
+
+        // Then
+        assertThat(fromSource).isEqualTo(new TopicPartition("guest-invited-retry", -1));
+        assertThat(fromFirstRetry).isEqualTo(new TopicPartition("guest-invited-retry", -1));
+        assertThat(fromSecondRetry).isEqualTo(new TopicPartition("guest-invited-dlt", -1));
+        assertThat(meterRegistry.get("guest.kafka.dead-letter").tag("failure", "database").tag("destination", "retry")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("guest.kafka.dead-letter").tag("failure", "database").tag("destination", "dlt")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void destination_MalformedPayload_ShouldGoStraightToDeadLetterTopic() {
+        // Given
+        Exception failure = listenerFailure(new MalformedPayloadException("guest-removed", new IOException("bad json")));
+
+        // When
+        TopicPartition destination = routing.destination(record("guest-removed"), failure);
+        Headers headers = routing.headers(record("guest-removed"), failure);
+
+        // Then
+        assertThat(destination).isEqualTo(new TopicPartition("guest-removed-dlt", -1));
+        assertThat(headers.lastHeader(DeadLetterRouting.ATTEMPT_HEADER)).isNull();
+        assertThat(meterRegistry.get("guest.kafka.dead-letter").tag("failure", "parse").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void destination_OtherTopic_ShouldNotBeRouted() {
+        // When
+        TopicPartition destination = routing.destination(record("organization-role-changed"),
+                listenerFailure(new IllegalStateException("boom")));
+
+        // Then
+        assertThat(destination).isNull();
+    }
+
+    @Test
+    void remainingDelay_ShouldCountDownFromRetryHeader() {
+        // Given
+        Exception failure = listenerFailure(new IllegalStateException("boom"));
+        ConsumerRecord<String, byte[]> retry = retried(record("event-deleted"), failure);
+        ConsumerRecord<String, byte[]> replayed = record("event-deleted-retry");
+        replayed.headers().add(DeadLetterRouting.DUE_HEADER, "0".getBytes(StandardCharsets.US_ASCII));
+
+        // When
+        Duration waiting = routing.remainingDelay(retry);
+        Duration due = routing.remainingDelay(replayed);
+
+        // Then
+        assertThat(waiting).isPositive().isLessThanOrEqualTo(DELAY);
+        assertThat(due).isNegative();
+    }
+
+    private ConsumerRecord<String, byte[]> retried(ConsumerRecord<String, byte[]> failed, Exception failure) {
+        String retryTopic = DeadLetterRouting.retryTopic(DeadLetterRouting.sourceTopic(failed.topic()));
+        ConsumerRecord<String, byte[]> retry = record(retryTopic);
+        routing.headers(failed, failure).forEach(header -> retry.headers().add(header));
+        return retry;
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic) {
+        return new ConsumerRecord<>(topic, 0, 0L, "key", "{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Exception listenerFailure(RuntimeException cause) {
+        return new ListenerExecutionFailedException("Listener failed",
+                new BatchListenerFailedException("Failed to process", cause, 0));
+    }
+}
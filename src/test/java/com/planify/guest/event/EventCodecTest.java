@@ -0,0 +1,60 @@
+package com.planify.guest.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecTest {
+
+    private static final UUID EVENT_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final UUID USER_ID = UUID.fromString("990e8400-e29b-41d4-a716-446655440004");
+    private static final UUID ORGANIZATION_ID = UUID.fromString("880e8400-e29b-41d4-a716-446655440003");
+
+    @Test
+    void decodeGuestInvited_ShouldBindIdsAndIgnoreOtherFields() throws IOException {
+        // Given
+        byte[] payload = ("{\"eventId\":\"" + EVENT_ID + "\",\"userId\":\"" + USER_ID
+                + "\",\"organizationId\":\"" + ORGANIZATION_ID + "\",\"timestamp\":\"2024-12-24T10:00:00Z\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        // When
+        GuestInvited invited = EventCodec.decodeGuestInvited(payload);
+
+        // Then
+        assertThat(invited).isEqualTo(new GuestInvited(EVENT_ID, USER_ID, ORGANIZATION_ID));
+    }
+
+    @Test
+    void decodeGuestRemoved_WhenIdMissing_ShouldThrowException() {
+        // Given
+        byte[] payload = ("{\"eventId\":\"" + EVENT_ID + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertThatThrownBy(() -> EventCodec.decodeGuestRemoved(payload)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void decodeEventDeleted_WhenIdMalformed_ShouldThrowException() {
+        // Given
+        byte[] payload = "{\"eventId\":\"not-a-uuid\"}".getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertThatThrownBy(() -> EventCodec.decodeEventDeleted(payload)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void encode_ShouldWriteRsvpPayloadWithIsoTimestamp() throws IOException {
+        // When
+        String json = EventCodec.encode(new RsvpChanged(EVENT_ID, USER_ID, true, LocalDateTime.of(2024, 12, 24, 10, 0, 5)));
+
+        // Then
+        assertThat(json).isEqualTo("{\"eventId\":\"" + EVENT_ID + "\",\"userId\":\"" + USER_ID
+                + "\",\"wasAccepted\":true,\"timestamp\":\"2024-12-24T10:00:05\"}");
+    }
+}
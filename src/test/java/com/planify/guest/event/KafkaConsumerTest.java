@@ -0,0 +1,356 @@
+package com.planify.guest.event;
+
+import com.planify.guest.service.GuestService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaConsumerTest {
+
+    private static final int SHARDS = 4;
+
+    @Mock
+    private GuestService guestService;
+
+    @Mock
+    private Consumer<String, byte[]> consumer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaConsumer kafkaConsumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        kafkaConsumer.close();
+    }
+
+    @Test
+    void consumeGuestRemoved_OnListenerThread_ShouldFailAtFirstError() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, 0);
+        UUID eventId = UUID.randomUUID();
+        UUID failingUser = UUID.randomUUID();
+        doAnswer(invocation -> {
+            if (failingUser.equals(invocation.getArgument(1))) {
+                throw new IllegalStateException("boom");
+            }
+            return null;
+        }).when(guestService).handleGuestRemoved(any(), any());
+        List<byte[]> messages = List.of(
+                removed(eventId, UUID.randomUUID()),
+                removed(eventId, failingUser),
+                removed(eventId, UUID.randomUUID()));
+
+        // When / Then
+        assertThatThrownBy(() -> kafkaConsumer.consumeGuestRemoved(polled("guest-removed", messages), consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(1));
+        verify(guestService, times(2)).handleGuestRemoved(any(), any());
+    }
+
+    @Test
+    void consumeGuestRemoved_MalformedPayload_ShouldHandleOnlyRecordsBeforeIt() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, SHARDS);
+        UUID eventId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        List<byte[]> messages = List.of(
+                removed(eventId, userId),
+                "not json".getBytes(StandardCharsets.UTF_8),
+                removed(eventId, UUID.randomUUID()));
+
+        // When / Then
+        assertThatThrownBy(() -> kafkaConsumer.consumeGuestRemoved(polled("guest-removed", messages), consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(1);
+                    assertThat(e.getCause()).isInstanceOf(MalformedPayloadException.class);
+                });
+        verify(guestService).handleGuestRemoved(eventId, userId);
+        verifyNoMoreInteractions(guestService);
+    }
+
+    @Test
+    void consumeGuestRemoved_KeyOrdered_ShouldKeepPerEventOrder() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, SHARDS);
+        List<UUID> events = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<byte[]> messages = new ArrayList<>();
+        List<UUID> sent = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            UUID userId = UUID.randomUUID();
+            sent.add(userId);
+            messages.add(removed(events.get(i % events.size()), userId));
+        }
+        List<UUID> handled = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> handled.add(invocation.getArgument(1)))
+                .when(guestService).handleGuestRemoved(any(), any());
+
+        // When
+        kafkaConsumer.consumeGuestRemoved(polled("guest-removed", messages), consumer);
+
+        // Then
+        assertThat(handled).containsExactlyInAnyOrderElementsOf(sent);
+        for (int e = 0; e < events.size(); e++) {
+            List<UUID> expected = new ArrayList<>();
+            for (int i = e; i < sent.size(); i += events.size()) {
+                expected.add(sent.get(i));
+            }
+            assertThat(handled.stream().filter(expected::contains).toList()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void consumeGuestInvited_KeyOrdered_ShouldFailAtLowestFailedRecord() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, SHARDS);
+        KeyOrderedExecutor shards = new KeyOrderedExecutor("test", SHARDS);
+        UUID failingEvent = UUID.randomUUID();
+        UUID otherEvent = UUID.randomUUID();
+        while (shards.shardOf(otherEvent) == shards.shardOf(failingEvent)) {
+            otherEvent = UUID.randomUUID();
+        }
+        shards.close();
+        UUID failing = failingEvent;
+        when(guestService.handleGuestInvitedBatch(anyList())).thenAnswer(invocation -> {
+            List<GuestInvited> batch = invocation.getArgument(0);
+            if (batch.getFirst().eventId().equals(failing)) {
+                throw new IllegalStateException("boom");
+            }
+            return batch.size();
+        });
+        List<byte[]> messages = List.of(
+                invited(otherEvent), invited(otherEvent), invited(failingEvent), invited(otherEvent), invited(failingEvent));
+
+        // When / Then
+        assertThatThrownBy(() -> kafkaConsumer.consumeGuestInvited(polled("guest-invited", messages), consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(2));
+        verify(guestService, times(2)).handleGuestInvitedBatch(anyList());
+    }
+
+    @Test
+    void consumeGuestRemoved_ShouldRecordTimingsAndPartitionLag() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, 0);
+        TopicPartition partition = new TopicPartition("guest-removed", 3);
+        when(consumer.assignment()).thenReturn(Set.of(partition));
+        when(consumer.currentLag(partition)).thenReturn(OptionalLong.of(42));
+        UUID eventId = UUID.randomUUID();
+
+        // When
+        kafkaConsumer.consumeGuestRemoved(polled("guest-removed",
+                List.of(removed(eventId, UUID.randomUUID()), removed(eventId, UUID.randomUUID()))), consumer);
+        kafkaConsumer.process("guest-removed", polled("guest-removed-retry", List.of(removed(eventId, UUID.randomUUID()))));
+
+        // Then
+        assertThat(meterRegistry.get("guest.kafka.consume.decode").tag("topic", "guest-removed").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("guest.kafka.consume.handler").tag("topic", "guest-removed").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("guest.kafka.consume.latency").tag("topic", "guest-removed").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("guest.kafka.consumer.lag").tag("partition", "3").gauge().value()).isEqualTo(42);
+
+        // When
+        kafkaConsumer.onPartitionsRevoked(Set.of(partition));
+
+        // Then
+        assertThat(meterRegistry.find("guest.kafka.consumer.lag").gauge()).isNull();
+    }
+
+    @Test
+    void consumeGuestEvents_ShouldApplyOnlyTheNetWrites() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, SHARDS);
+        UUID eventId = UUID.randomUUID();
+        UUID deletedEvent = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record("guest-invited", 0, invited(eventId, userId)),
+                record("guest-invited", 1, invited(deletedEvent, UUID.randomUUID())),
+                record("guest-invited", 2, invited(deletedEvent, UUID.randomUUID())),
+                record("guest-removed", 0, removed(eventId, userId)),
+                record("event-deleted", 0, deleted(deletedEvent)));
+
+        // When
+        kafkaConsumer.consumeGuestEvents(records, consumer);
+
+        // Then
+        verify(guestService).handleGuestRemoved(eventId, userId);
+        verify(guestService).handleEventDeleted(deletedEvent);
+        verifyNoMoreInteractions(guestService);
+        assertThat(meterRegistry.get("guest.kafka.compaction.avoided").tag("topic", "guest-invited").counter().count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("guest.kafka.consume.latency").tag("topic", "guest-invited").timer().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void consumeGuestEvents_WhenAWriteFails_ShouldFailAtTheRecordThatCausedIt() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, 0);
+        UUID eventId = UUID.randomUUID();
+        UUID failingUser = UUID.randomUUID();
+        doAnswer(invocation -> {
+            if (failingUser.equals(invocation.getArgument(1))) {
+                throw new IllegalStateException("boom");
+            }
+            return null;
+        }).when(guestService).handleGuestRemoved(any(), any());
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record("guest-invited", 0, invited(eventId, UUID.randomUUID())),
+                record("guest-invited", 1, invited(eventId, failingUser)),
+                record("guest-removed", 0, removed(eventId, failingUser)),
+                record("guest-removed", 1, removed(eventId, UUID.randomUUID())));
+
+        // When / Then
+        assertThatThrownBy(() -> kafkaConsumer.consumeGuestEvents(records, consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(2));
+        // Once folded, where removals run before the invitations, then one record at a time
+        verify(guestService, times(2)).handleGuestRemoved(eventId, failingUser);
+        verify(guestService, times(2)).handleGuestInvitedBatch(anyList());
+        assertThat(meterRegistry.find("guest.kafka.compaction.avoided").counter()).isNull();
+    }
+
+    @Test
+    void consumeGuestEvents_WhenAWriteFails_ShouldReplayInProducedOrder() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, 0);
+        UUID eventId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID otherEventId = UUID.randomUUID();
+        UUID failingUser = UUID.randomUUID();
+        doAnswer(invocation -> {
+            if (failingUser.equals(invocation.getArgument(1))) {
+                throw new IllegalStateException("boom");
+            }
+            return null;
+        }).when(guestService).handleGuestRemoved(any(), any());
+        // The removal is polled first but was produced after the invitation
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record("guest-removed", 0, 2, removed(eventId, userId)),
+                record("guest-invited", 0, 1, invited(eventId, userId)),
+                record("guest-removed", 1, 3, removed(otherEventId, failingUser)));
+
+        // When / Then
+        assertThatThrownBy(() -> kafkaConsumer.consumeGuestEvents(records, consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(2));
+        InOrder inOrder = inOrder(guestService);
+        // Folded to the removal alone, then replayed as invitation followed by removal
+        inOrder.verify(guestService).handleGuestRemoved(eventId, userId);
+        inOrder.verify(guestService).handleGuestInvitedBatch(anyList());
+        inOrder.verify(guestService).handleGuestRemoved(eventId, userId);
+        inOrder.verify(guestService).handleGuestRemoved(otherEventId, failingUser);
+        verify(guestService, times(1)).handleGuestInvitedBatch(anyList());
+    }
+
+    @Test
+    void consumeGuestEvents_WhenAWriteFails_ShouldRecoverOnlyTheFailedRecord() {
+        // Given
+        kafkaConsumer = new KafkaConsumer(guestService, meterRegistry, 0);
+        UUID eventId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID failingUser = UUID.randomUUID();
+        doAnswer(invocation -> {
+            List<GuestInvited> invites = invocation.getArgument(0);
+            if (invites.stream().anyMatch(invited -> failingUser.equals(invited.userId()))) {
+                throw new IllegalStateException("boom");
+            }
+            return invites.size();
+        }).when(guestService).handleGuestInvitedBatch(anyList());
+        // The removal is polled first but was produced after the failing invitation of its event
+        ConsumerRecord<String, byte[]> laterRemoval = record("guest-removed", 0, 5, removed(eventId, userId));
+        ConsumerRecord<String, byte[]> failingInvite = record("guest-invited", 0, 1, invited(eventId, failingUser));
+        Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> poll = new LinkedHashMap<>();
+        poll.put(new TopicPartition("guest-removed", 0), List.of(laterRemoval));
+        poll.put(new TopicPartition("guest-invited", 0), List.of(failingInvite));
+        ConsumerRecordRecoverer recoverer = mock(ConsumerRecordRecoverer.class);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        lenient().when(container.getContainerProperties()).thenReturn(new ContainerProperties("guest-events"));
+
+        // When
+        BatchListenerFailedException failure = catchThrowableOfType(BatchListenerFailedException.class,
+                () -> kafkaConsumer.consumeGuestEvents(List.of(laterRemoval, failingInvite), consumer));
+        new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L))
+                .handleBatch(failure, new ConsumerRecords<>(poll), consumer, container, () -> { });
+
+        // Then
+        assertThat(failure.getIndex()).isEqualTo(1);
+        verify(recoverer).accept(eq(failingInvite), any());
+        verifyNoMoreInteractions(recoverer);
+        // Committed along with the records before the failure, so it must have been applied
+        verify(guestService, times(2)).handleGuestRemoved(eventId, userId);
+        verify(consumer).commitSync(eq(Map.of(new TopicPartition("guest-removed", 0), new OffsetAndMetadata(1))), any());
+    }
+
+    private static List<ConsumerRecord<String, byte[]>> polled(String topic, List<byte[]> messages) {
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            records.add(record(topic, i, messages.get(i)));
+        }
+        return records;
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, long offset, byte[] message) {
+        return record(topic, offset, System.currentTimeMillis(), message);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, long offset, long timestamp, byte[] message) {
+        return new ConsumerRecord<>(topic, 0, offset, timestamp, TimestampType.CREATE_TIME,
+                0, message.length, null, message, new RecordHeaders(), Optional.empty());
+    }
+
+    private static byte[] removed(UUID eventId, UUID userId) {
+        return ("{\"eventId\":\"" + eventId + "\",\"userId\":\"" + userId + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] invited(UUID eventId) {
+        return invited(eventId, UUID.randomUUID());
+    }
+
+    private static byte[] invited(UUID eventId, UUID userId) {
+        return ("{\"eventId\":\"" + eventId + "\",\"userId\":\"" + userId
+                + "\",\"organizationId\":\"" + UUID.randomUUID() + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deleted(UUID eventId) {
+        return ("{\"eventId\":\"" + eventId + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
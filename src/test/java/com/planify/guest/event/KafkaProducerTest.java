@@ -0,0 +1,89 @@
+package com.planify.guest.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaProducerTest {
+
+    private static final String TOPIC = "rsvp-accepted";
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaProducer kafkaProducer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaProducer = new KafkaProducer(kafkaTemplate, meterRegistry, 1, Duration.ofMillis(10));
+    }
+
+    @Test
+    void send_ShouldSendKeyedRecordAndRecordLatencyOnAcknowledgement() {
+        // Given
+        CompletableFuture<SendResult<String, String>> ack = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, "event-1", "payload")).thenReturn(ack);
+
+        // When
+        CompletableFuture<SendResult<String, String>> result = kafkaProducer.send(TOPIC, "event-1", "payload");
+
+        // Then
+        assertThat(inFlight()).isEqualTo(1);
+        ack.complete(null);
+        assertThat(result).isCompleted();
+        assertThat(inFlight()).isZero();
+        assertThat(meterRegistry.get("guest.kafka.publish").tag("topic", TOPIC).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void send_WhenAllPermitsInFlight_ShouldFailFastWithoutSending() {
+        // Given
+        when(kafkaTemplate.send(TOPIC, "event-1", "first")).thenReturn(new CompletableFuture<>());
+        kafkaProducer.send(TOPIC, "event-1", "first");
+
+        // When
+        CompletableFuture<SendResult<String, String>> result = kafkaProducer.send(TOPIC, "event-2", "second");
+
+        // Then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(result.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+        verify(kafkaTemplate, never()).send(TOPIC, "event-2", "second");
+        assertThat(meterRegistry.get("guest.kafka.publish.failures")
+                .tags("topic", TOPIC, "reason", "backpressure").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void send_WhenBrokerRejectsRecord_ShouldReleasePermitAndCountFailure() {
+        // Given
+        when(kafkaTemplate.send(TOPIC, "event-1", "payload"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("not leader")));
+
+        // When
+        CompletableFuture<SendResult<String, String>> result = kafkaProducer.send(TOPIC, "event-1", "payload");
+
+        // Then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(inFlight()).isZero();
+        assertThat(meterRegistry.get("guest.kafka.publish.failures")
+                .tags("topic", TOPIC, "reason", "IllegalStateException").counter().count()).isEqualTo(1);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("guest.kafka.publish.in-flight").gauge().value();
+    }
+}
@@ -0,0 +1,107 @@
+package com.planify.guest.event;
+
+import com.planify.guest.model.OutboxMessage;
+import com.planify.guest.repository.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaProducer kafkaProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxRepository, kafkaProducer, transactionManager,
+                meterRegistry, BATCH_SIZE, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void relay_ShouldSendKeyedBatchAndDeleteAcknowledgedRows() {
+        // Given
+        when(outboxRepository.lockNextBatch(BATCH_SIZE))
+                .thenReturn(List.of(message(1L), message(2L)))
+                .thenReturn(List.of(message(3L)));
+        when(kafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        verify(kafkaProducer).send("rsvp-accepted", "event-1", "payload-1");
+        verify(outboxRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(outboxRepository).deleteByIdIn(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(meterRegistry.counter("guest.outbox.relayed").count()).isEqualTo(3);
+    }
+
+    @Test
+    void relay_WhenSendFails_ShouldRollBackAndKeepRows() {
+        // Given
+        when(outboxRepository.lockNextBatch(BATCH_SIZE)).thenReturn(List.of(message(1L), message(2L)));
+        when(kafkaProducer.send(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        verify(outboxRepository, never()).deleteByIdIn(anyCollection());
+        verify(transactionManager).rollback(any());
+        assertThat(meterRegistry.counter("guest.outbox.relay.failures").count()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshMetrics_ShouldExposeDepthAndAgeOfOldestMessage() {
+        // Given
+        when(outboxRepository.count()).thenReturn(5L);
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.of(LocalDateTime.now().minusSeconds(30)));
+
+        // When
+        outboxRelay.refreshMetrics();
+
+        // Then
+        assertThat(meterRegistry.get("guest.outbox.depth").gauge().value()).isEqualTo(5);
+        assertThat(meterRegistry.get("guest.outbox.lag").timeGauge().value(TimeUnit.SECONDS)).isGreaterThanOrEqualTo(30);
+    }
+
+    private static OutboxMessage message(long id) {
+        return OutboxMessage.builder()
+                .id(id)
+                .topic("rsvp-accepted")
+                .messageKey("event-" + id)
+                .payload("payload-" + id)
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the online move of invitations to the hash-partitioned table (migration V6) on
+ * PostgreSQL, with writes between the steps, and checks the repository against the result.
+ * Each test rolls back, DDL included.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class InvitationPartitioningTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final int PARTITIONS = 4;
+    private static final Pattern PARTITION = Pattern.compile("invitations_p\\d+");
+
+    @Autowired
+    private InvitationRepository invitationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID organizationId = UUID.randomUUID();
+    private final UUID eventId = UUID.randomUUID();
+    private final UUID otherEventId = UUID.randomUUID();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void partitioning_ShouldKeepRowsWrittenDuringBackfill() {
+        // Given
+        List<UUID> guests = invite(eventId, 60);
+        List<UUID> otherGuests = invite(otherEventId, 60);
+        assertThat(invitationRepository.preparePartitioning(PARTITIONS)).isTrue();
+        assertThat(invitationRepository.preparePartitioning(PARTITIONS)).isFalse();
+
+        // When
+        int firstBatch = invitationRepository.backfillPartitioned(25);
+        UUID lateGuest = invite(eventId, 1).getFirst();
+        invitationRepository.transitionRsvp(eventId, guests.get(7), Invitation.RsvpStatus.ACCEPTED, LocalDateTime.now());
+        invitationRepository.transitionRsvp(otherEventId, otherGuests.get(3), Invitation.RsvpStatus.DECLINED, LocalDateTime.now());
+        invitationRepository.deleteChunkByEventId(otherEventId, 10);
+        int batches = 1;
+        while (invitationRepository.backfillPartitioned(25) > 0) {
+            batches++;
+        }
+        invite(otherEventId, 1);
+        boolean swapped = invitationRepository.swapPartitioned(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(firstBatch).isEqualTo(25);
+        assertThat(batches).isBetween(4, 5);
+        assertThat(swapped).isTrue();
+        assertThat(invitationRepository.swapPartitioned(Duration.ofSeconds(5))).isFalse();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'invitations'::regclass", Integer.class))
+                .isEqualTo(PARTITIONS);
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM (
+                    (SELECT * FROM invitations EXCEPT SELECT * FROM invitations_unpartitioned)
+                    UNION ALL
+                    (SELECT * FROM invitations_unpartitioned EXCEPT SELECT * FROM invitations)
+                ) AS difference
+                """, Integer.class)).isZero();
+        assertThat(invitationRepository.findByEventId(eventId, InvitationView.class)).hasSize(61)
+                .anyMatch(invitation -> invitation.userId().equals(lateGuest));
+        assertThat(invitationRepository.findByEventIdAndUserId(eventId, guests.get(7), InvitationView.class))
+                .map(InvitationView::rsvpStatus).contains(Invitation.RsvpStatus.ACCEPTED);
+        assertThat(invitationRepository.findByEventId(otherEventId, InvitationView.class)).hasSize(51);
+    }
+
+    @Test
+    void repository_ShouldWorkUnchangedOnPartitionedTable() {
+        // Given
+        List<UUID> guests = invite(eventId, 20);
+        invitationRepository.preparePartitioning(PARTITIONS);
+        invitationRepository.swapPartitioned(Duration.ofSeconds(5));
+
+        // When
+        int duplicates = invitationRepository.insertIgnoringDuplicates(List.of(invitation(eventId, guests.getFirst())))
+                .getOrDefault(eventId, 0);
+        invitationRepository.transitionRsvp(eventId, guests.get(1), Invitation.RsvpStatus.MAYBE, LocalDateTime.now());
+        Invitation created = invitationRepository.saveAndFlush(invitation(otherEventId, UUID.randomUUID()));
+        invitationRepository.delete(created);
+        invitationRepository.flush();
+        int deleted = invitationRepository.deleteChunkByEventId(eventId, 15);
+
+        // Then
+        assertThat(duplicates).isZero();
+        assertThat(deleted).isEqualTo(15);
+        assertThat(invitationRepository.findByEventId(eventId, InvitationView.class)).hasSize(5);
+        assertThat(invitationRepository.findByEventId(otherEventId, InvitationView.class)).isEmpty();
+        assertThat(PARTITION.matcher(explain("DELETE FROM invitations WHERE event_id = '%s'".formatted(eventId)))
+                .results().map(MatchResult::group).distinct())
+                .as("partitions touched by an event deletion")
+                .hasSize(1);
+    }
+
+    private List<UUID> invite(UUID event, int count) {
+        List<Invitation> invitations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            invitations.add(invitation(event, UUID.randomUUID()));
+        }
+        invitationRepository.insertIgnoringDuplicates(invitations);
+        return invitations.stream().map(Invitation::getUserId).toList();
+    }
+
+    private Invitation invitation(UUID event, UUID userId) {
+        return Invitation.builder()
+                .eventId(event)
+                .userId(userId)
+                .organizationId(organizationId)
+                .build();
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans every derived query of {@link InvitationRepository} on PostgreSQL with the Flyway
+ * schema and fails if one of them needs a sequential scan.
+ *
+ * The SQL is captured from Hibernate, prepared and explained as a generic plan (the plan a
+ * pooled prepared statement ends up with) with sequential scans disabled, so a Seq Scan in the
+ * plan means no index can serve the query. Equality predicates must also be index conditions,
+ * so an index that covers only part of a lookup (user_id without rsvp_status) fails as well.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.planify.guest.repository.InvitationRepositoryQueryPlanTest$CapturingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class InvitationRepositoryQueryPlanTest {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+    private static final Pattern EQUALITY = Pattern.compile("\\w+\\.(\\w+)=\\?");
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private InvitationRepository invitationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID eventId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID organizationId = UUID.randomUUID();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void findByUserId_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByUserId(userId, InvitationView.class));
+    }
+
+    @Test
+    void findByEventId_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByEventId(eventId, InvitationView.class));
+    }
+
+    @Test
+    void findByOrganizationId_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByOrganizationId(organizationId, InvitationView.class));
+    }
+
+    @Test
+    void findByEventIdAndUserId_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByEventIdAndUserId(eventId, userId, InvitationView.class));
+    }
+
+    @Test
+    void existsByEventIdAndUserId_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.existsByEventIdAndUserId(eventId, userId));
+    }
+
+    @Test
+    void findByUserIdAndRsvpStatus_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByUserIdAndRsvpStatus(userId, Invitation.RsvpStatus.ACCEPTED, InvitationView.class));
+    }
+
+    @Test
+    void findByEventIdAndRsvpStatus_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByEventIdAndRsvpStatus(eventId, Invitation.RsvpStatus.ACCEPTED, InvitationView.class));
+    }
+
+    @Test
+    void keysetPagesByUser_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByUserId(userId, ScrollPosition.keyset(), keysetOrder(), Limit.of(100), InvitationView.class));
+        assertNoSequentialScan(() -> invitationRepository.findByUserId(userId, nextPage(), keysetOrder(), Limit.of(100), InvitationView.class));
+    }
+
+    @Test
+    void keysetPagesByEvent_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByEventId(eventId, ScrollPosition.keyset(), keysetOrder(), Limit.of(100), InvitationView.class));
+        assertNoSequentialScan(() -> invitationRepository.findByEventId(eventId, nextPage(), keysetOrder(), Limit.of(100), InvitationView.class));
+    }
+
+    @Test
+    void keysetPagesByOrganization_ShouldUseIndex() {
+        assertNoSequentialScan(() -> invitationRepository.findByOrganizationId(organizationId, ScrollPosition.keyset(), keysetOrder(), Limit.of(100), InvitationView.class));
+        assertNoSequentialScan(() -> invitationRepository.findByOrganizationId(organizationId, nextPage(), keysetOrder(), Limit.of(100), InvitationView.class));
+    }
+
+    private void assertNoSequentialScan(Runnable query) {
+        // When
+        CapturingStatementInspector.STATEMENTS.clear();
+        query.run();
+        List<String> statements = List.copyOf(CapturingStatementInspector.STATEMENTS);
+
+        // Then
+        assertThat(statements).as("captured SQL").isNotEmpty();
+        for (String sql : statements) {
+            String plan = String.join("\n", explainGenericPlan(sql));
+            assertThat(plan).as("plan of %s", sql).doesNotContain("Seq Scan");
+            for (String column : equalityColumns(sql)) {
+                assertThat(plan.lines().filter(line -> line.strip().startsWith("Filter:")))
+                        .as("plan of %s filters %s after the index scan", sql, column)
+                        .noneMatch(line -> line.contains(column));
+            }
+        }
+    }
+
+    /**
+     * Columns compared with {@code =} at the top level of the WHERE clause; each of them must be
+     * an index condition, not a filter applied to the rows an index on fewer columns returned.
+     */
+    private static List<String> equalityColumns(String sql) {
+        int where = sql.indexOf(" where ");
+        if (where < 0) {
+            return List.of();
+        }
+        String conditions = sql.substring(where + " where ".length()).split(" order by | fetch ")[0];
+        List<String> columns = new ArrayList<>();
+        for (String condition : conditions.split(" and ")) {
+            Matcher matcher = EQUALITY.matcher(condition.strip());
+            if (matcher.matches()) {
+                columns.add(matcher.group(1));
+            }
+        }
+        return columns;
+    }
+
+    private List<String> explainGenericPlan(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        List<String> arguments = new ArrayList<>();
+        while (matcher.find()) {
+            arguments.add("NULL");
+            matcher.appendReplacement(numbered, "\\$" + arguments.size());
+        }
+        matcher.appendTail(numbered);
+
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        jdbcTemplate.execute("PREPARE plan_check AS " + numbered);
+        try {
+            String execute = arguments.isEmpty() ? "plan_check" : "plan_check(" + String.join(", ", arguments) + ")";
+            return jdbcTemplate.queryForList("EXPLAIN EXECUTE " + execute, String.class);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE plan_check");
+        }
+    }
+
+    private static Sort keysetOrder() {
+        return Sort.by("invitationReceivedAt", "id");
+    }
+
+    private static ScrollPosition nextPage() {
+        return ScrollPosition.forward(Map.of("invitationReceivedAt", LocalDateTime.now(), "id", UUID.randomUUID()));
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records the SELECTs Hibernate prepares; registered by class name in the test properties.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.planify.guest.repository;
+
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.EventRsvpSummary;
+import com.planify.guest.model.Invitation;
+import com.planify.guest.model.OutboxMessage;
+import com.planify.guest.repository.EventRsvpSummaryRepositoryCustom.RsvpDelta;
+import com.planify.guest.repository.InvitationRepositoryCustom.RsvpTransition;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the array-bound statements behind the bulk RSVP endpoint on PostgreSQL with the Flyway
+ * schema: the RSVP transitions (bulk and single-row, which share their UPDATE ... UNION ALL
+ * tail), the outbox insert, the summary delta upsert and reconciliation, and the removal of one
+ * invitation.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SetBasedStatementsTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final int BULK_LIMIT = 10_000;
+
+    @Autowired
+    private InvitationRepository invitationRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private EventRsvpSummaryRepository summaryRepository;
+
+    private final UUID organizationId = UUID.randomUUID();
+    private final UUID eventId = UUID.randomUUID();
+    private final LocalDateTime respondedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void transitionRsvps_ShouldApplyTheLastRequestPerInvitationOfTheOrganization() {
+        // Given
+        UUID answered = UUID.randomUUID();
+        UUID unchanged = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        invitationRepository.insertIgnoringDuplicates(List.of(
+                invitation(organizationId, answered),
+                invitation(organizationId, unchanged),
+                invitation(UUID.randomUUID(), foreign)));
+
+        // When
+        List<RsvpTransition> transitions = invitationRepository.transitionRsvps(organizationId, List.of(
+                request(answered, Invitation.RsvpStatus.ACCEPTED),
+                request(unchanged, Invitation.RsvpStatus.PENDING),
+                request(foreign, Invitation.RsvpStatus.DECLINED),
+                request(UUID.randomUUID(), Invitation.RsvpStatus.MAYBE),
+                request(answered, Invitation.RsvpStatus.DECLINED)), respondedAt);
+
+        // Then
+        assertThat(transitions).hasSize(2);
+        RsvpTransition changed = transitionOf(transitions, answered);
+        assertThat(changed.changed()).isTrue();
+        assertThat(changed.previousStatus()).isEqualTo(Invitation.RsvpStatus.PENDING);
+        assertThat(changed.invitation().getRsvpStatus()).isEqualTo(Invitation.RsvpStatus.DECLINED);
+        assertThat(changed.invitation().getRespondedAt()).isEqualTo(respondedAt);
+        RsvpTransition noOp = transitionOf(transitions, unchanged);
+        assertThat(noOp.changed()).isFalse();
+        assertThat(noOp.previousStatus()).isEqualTo(Invitation.RsvpStatus.PENDING);
+        assertThat(noOp.invitation().getRespondedAt()).isNull();
+        assertThat(invitationRepository.findByEventIdAndUserId(eventId, foreign, InvitationView.class))
+                .map(InvitationView::rsvpStatus).contains(Invitation.RsvpStatus.PENDING);
+    }
+
+    @Test
+    void transitionRsvps_ShouldHandleTheBulkLimitInOneStatement() {
+        // Given
+        List<Invitation> invitations = new ArrayList<>(BULK_LIMIT);
+        List<Invitation> requested = new ArrayList<>(BULK_LIMIT);
+        for (int i = 0; i < BULK_LIMIT; i++) {
+            UUID userId = UUID.randomUUID();
+            invitations.add(invitation(organizationId, userId));
+            requested.add(request(userId, i % 2 == 0 ? Invitation.RsvpStatus.ACCEPTED : Invitation.RsvpStatus.PENDING));
+        }
+        invitationRepository.insertIgnoringDuplicates(invitations);
+
+        // When
+        long start = System.nanoTime();
+        List<RsvpTransition> transitions = invitationRepository.transitionRsvps(organizationId, requested, respondedAt);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        assertThat(transitions).hasSize(BULK_LIMIT);
+        assertThat(transitions).filteredOn(RsvpTransition::changed).hasSize(BULK_LIMIT / 2)
+                .allMatch(transition -> transition.invitation().getRsvpStatus() == Invitation.RsvpStatus.ACCEPTED);
+        // Loose enough for a slow machine; a nested loop over 10 000 x 10 000 rows takes far longer
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void transitionRsvp_ShouldReturnThePreviousStatusAndWriteOnlyChanges() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        invitationRepository.insertIgnoringDuplicates(List.of(invitation(organizationId, userId)));
+
+        // When
+        Optional<RsvpTransition> first = invitationRepository.transitionRsvp(
+                eventId, userId, Invitation.RsvpStatus.MAYBE, respondedAt);
+        Optional<RsvpTransition> repeated = invitationRepository.transitionRsvp(
+                eventId, userId, Invitation.RsvpStatus.MAYBE, respondedAt.plusMinutes(5));
+        Optional<RsvpTransition> missing = invitationRepository.transitionRsvp(
+                eventId, UUID.randomUUID(), Invitation.RsvpStatus.MAYBE, respondedAt);
+
+        // Then
+        assertThat(first).hasValueSatisfying(transition -> {
+            assertThat(transition.changed()).isTrue();
+            assertThat(transition.previousStatus()).isEqualTo(Invitation.RsvpStatus.PENDING);
+            assertThat(transition.invitation().getRsvpStatus()).isEqualTo(Invitation.RsvpStatus.MAYBE);
+        });
+        assertThat(repeated).hasValueSatisfying(transition -> {
+            assertThat(transition.changed()).isFalse();
+            assertThat(transition.previousStatus()).isEqualTo(Invitation.RsvpStatus.MAYBE);
+            assertThat(transition.invitation().getRespondedAt()).isEqualTo(respondedAt);
+        });
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    void insertAll_ShouldInsertMessagesInOrder() {
+        // Given
+        List<OutboxMessage> messages = List.of(
+                message("rsvp-accepted", "key-1", "{\"n\":1}"),
+                message("rsvp-declined", null, "{\"n\":2}"),
+                message("rsvp-accepted", "key-3", "{\"n\":3}"));
+
+        // When
+        outboxRepository.insertAll(messages);
+
+        // Then
+        assertThat(outboxRepository.findAll(Sort.by("id")))
+                .extracting(OutboxMessage::getTopic, OutboxMessage::getMessageKey, OutboxMessage::getPayload)
+                .containsExactly(
+                        tuple("rsvp-accepted", "key-1", "{\"n\":1}"),
+                        tuple("rsvp-declined", null, "{\"n\":2}"),
+                        tuple("rsvp-accepted", "key-3", "{\"n\":3}"));
+        assertThat(outboxRepository.findAll()).allMatch(message -> message.getCreatedAt() != null);
+    }
+
+    @Test
+    void applyDeltas_ShouldAddToExistingSummariesAndCreateMissingOnes() {
+        // Given
+        UUID newEventId = UUID.randomUUID();
+        summaryRepository.applyDelta(eventId, 5, 1, 0, 0);
+
+        // When
+        summaryRepository.applyDeltas(Map.of(
+                eventId, new RsvpDelta(-2, 1, 1, 0),
+                newEventId, new RsvpDelta(0, 0, 0, 3)));
+
+        // Then
+        assertThat(summaryRepository.findById(eventId)).hasValueSatisfying(summary -> assertThat(counts(summary))
+                .containsExactly(3, 2, 1, 0));
+        assertThat(summaryRepository.findById(newEventId)).hasValueSatisfying(summary -> assertThat(counts(summary))
+                .containsExactly(0, 0, 0, 3));
+    }
+
+    @Test
+    void reconcile_ShouldAddTheDriftToStoredCountersAndCreateMissingOnes() {
+        // Given
+        UUID uncountedEventId = UUID.randomUUID();
+        UUID emptyEventId = UUID.randomUUID();
+        List<UUID> guests = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        invitationRepository.insertIgnoringDuplicates(guests.stream().map(guest -> invitation(organizationId, guest)).toList());
+        invitationRepository.transitionRsvp(eventId, guests.getFirst(), Invitation.RsvpStatus.ACCEPTED, respondedAt);
+        invitationRepository.insertIgnoringDuplicates(List.of(Invitation.builder()
+                .eventId(uncountedEventId).userId(UUID.randomUUID()).organizationId(organizationId).build()));
+        summaryRepository.applyDelta(eventId, 5, 0, 1, 0);
+        summaryRepository.applyDelta(emptyEventId, 2, 1, 0, 0);
+
+        // When
+        List<UUID> drifted = summaryRepository.reconcile();
+
+        // Then
+        assertThat(drifted).containsExactlyInAnyOrder(eventId, uncountedEventId, emptyEventId);
+        assertThat(summaryRepository.findById(eventId)).hasValueSatisfying(summary -> assertThat(counts(summary))
+                .containsExactly(2, 1, 0, 0));
+        assertThat(summaryRepository.findById(uncountedEventId)).hasValueSatisfying(summary -> assertThat(counts(summary))
+                .containsExactly(1, 0, 0, 0));
+        assertThat(summaryRepository.findById(emptyEventId)).hasValueSatisfying(summary -> assertThat(counts(summary))
+                .containsExactly(0, 0, 0, 0));
+        assertThat(summaryRepository.reconcile()).isEmpty();
+    }
+
+    @Test
+    void deleteReturningStatus_ShouldReturnTheStatusOfTheDeletedInvitation() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        invitationRepository.insertIgnoringDuplicates(List.of(invitation(organizationId, userId)));
+        invitationRepository.transitionRsvp(eventId, userId, Invitation.RsvpStatus.ACCEPTED, respondedAt);
+
+        // When
+        Optional<Invitation.RsvpStatus> deleted = invitationRepository.deleteReturningStatus(eventId, userId);
+        Optional<Invitation.RsvpStatus> missing = invitationRepository.deleteReturningStatus(eventId, userId);
+
+        // Then
+        assertThat(deleted).contains(Invitation.RsvpStatus.ACCEPTED);
+        assertThat(missing).isEmpty();
+        assertThat(invitationRepository.findByEventIdAndUserId(eventId, userId, InvitationView.class)).isEmpty();
+    }
+
+    private Invitation invitation(UUID organization, UUID userId) {
+        return Invitation.builder()
+                .eventId(eventId)
+                .userId(userId)
+                .organizationId(organization)
+                .build();
+    }
+
+    private Invitation request(UUID userId, Invitation.RsvpStatus status) {
+        return Invitation.builder()
+                .eventId(eventId)
+                .userId(userId)
+                .rsvpStatus(status)
+                .build();
+    }
+
+    private static OutboxMessage message(String topic, String key, String payload) {
+        return OutboxMessage.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(payload)
+                .build();
+    }
+
+    private static RsvpTransition transitionOf(List<RsvpTransition> transitions, UUID userId) {
+        return transitions.stream()
+                .filter(transition -> transition.invitation().getUserId().equals(userId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<Integer> counts(EventRsvpSummary summary) {
+        return List.of(summary.getPendingCount(), summary.getAcceptedCount(), summary.getDeclinedCount(),
+                summary.getMaybeCount());
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
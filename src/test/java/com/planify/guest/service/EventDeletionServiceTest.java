@@ -0,0 +1,68 @@
+package com.planify.guest.service;
+
+import com.planify.guest.repository.InvitationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventDeletionServiceTest {
+
+    private static final int CHUNK_SIZE = 100;
+
+    @Mock
+    private InvitationRepository invitationRepository;
+
+    @Mock
+    private RsvpSummaryService rsvpSummaryService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventDeletionService eventDeletionService;
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        eventDeletionService = new EventDeletionService(invitationRepository, rsvpSummaryService, meterRegistry, CHUNK_SIZE);
+        eventId = UUID.randomUUID();
+    }
+
+    @Test
+    void deleteInvitations_ShouldDeleteInChunksUntilEventIsEmpty() {
+        // Given
+        when(invitationRepository.deleteChunkByEventId(eventId, CHUNK_SIZE))
+                .thenReturn(CHUNK_SIZE, CHUNK_SIZE, 42);
+
+        // When
+        long deleted = eventDeletionService.deleteInvitations(eventId);
+
+        // Then
+        assertThat(deleted).isEqualTo(242);
+        verify(invitationRepository, times(3)).deleteChunkByEventId(eventId, CHUNK_SIZE);
+        assertThat(meterRegistry.counter("guest.event.deletion.rows").count()).isEqualTo(242);
+        assertThat(meterRegistry.counter("guest.event.deletion.chunks").count()).isEqualTo(3);
+        assertThat(meterRegistry.get("guest.event.deletion.active").gauge().value()).isZero();
+        verify(rsvpSummaryService).deleteSummary(eventId);
+    }
+
+    @Test
+    void deleteInvitations_WhenEventHasNoInvitations_ShouldIssueSingleStatement() {
+        // Given
+        when(invitationRepository.deleteChunkByEventId(eventId, CHUNK_SIZE)).thenReturn(0);
+
+        // When
+        long deleted = eventDeletionService.deleteInvitations(eventId);
+
+        // Then
+        assertThat(deleted).isZero();
+        verify(invitationRepository, times(1)).deleteChunkByEventId(eventId, CHUNK_SIZE);
+    }
+}
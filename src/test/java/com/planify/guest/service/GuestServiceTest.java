@@ -2,25 +2,48 @@ package com.planify.guest.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.planify.guest.event.KafkaProducer;
+import com.planify.guest.dto.BulkRsvpRequest;
+import com.planify.guest.dto.BulkRsvpResult;
+import com.planify.guest.dto.InvitationCursor;
+import com.planify.guest.dto.InvitationInbox;
+import com.planify.guest.dto.InvitationPage;
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.dto.RsvpChange;
+import com.planify.guest.event.GuestInvited;
+import com.planify.guest.model.EventRsvpSummary;
 import com.planify.guest.model.Invitation;
+import com.planify.guest.model.OutboxMessage;
 import com.planify.guest.repository.InvitationRepository;
+import com.planify.guest.repository.InvitationRepositoryCustom.RsvpTransition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -32,7 +55,23 @@ class GuestServiceTest {
     private InvitationRepository invitationRepository;
 
     @Mock
-    private KafkaProducer kafkaProducer;
+    private OutboxService outboxService;
+
+    @Mock
+    private EventDeletionService eventDeletionService;
+
+    @Mock
+    private RsvpSummaryService rsvpSummaryService;
+
+    @Mock
+    private InvitationInboxCache invitationInboxCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ReadYourWritesWindow readYourWritesWindow =
+            new ReadYourWritesWindow(new SimpleMeterRegistry(), true, Duration.ofSeconds(5), 100);
 
     @InjectMocks
     private GuestService guestService;
@@ -59,38 +98,38 @@ class GuestServiceTest {
     }
 
     @Test
-    void getMyInvitations_ShouldReturnUserInvitations() {
+    void getMyInvitations_ShouldReturnCachedInbox() {
         // Given
-        List<Invitation> invitations = List.of(invitation);
-        when(invitationRepository.findByUserId(userId)).thenReturn(invitations);
+        InvitationInbox inbox = InvitationInbox.of(List.of(view()));
+        when(invitationInboxCache.invitations(userId)).thenReturn(inbox);
 
         // When
-        List<Invitation> result = guestService.getMyInvitations(userId);
+        InvitationInbox result = guestService.getMyInvitations(userId);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(invitation);
-        verify(invitationRepository).findByUserId(userId);
+        assertThat(result.invitations()).containsExactly(view());
+        assertThat(result.etag()).isEqualTo(inbox.etag());
+        verifyNoInteractions(invitationRepository);
     }
 
     @Test
     void getMyInvitation_WhenInvitationExists_ShouldReturnInvitation() {
         // Given
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
+        when(invitationRepository.findByEventIdAndUserId(eventId, userId, InvitationView.class))
+                .thenReturn(Optional.of(view()));
 
         // When
-        Invitation result = guestService.getMyInvitation(eventId, userId);
+        InvitationView result = guestService.getMyInvitation(eventId, userId);
 
         // Then
-        assertThat(result).isEqualTo(invitation);
-        verify(invitationRepository).findByEventIdAndUserId(eventId, userId);
+        assertThat(result).isEqualTo(view());
+        verify(invitationRepository).findByEventIdAndUserId(eventId, userId, InvitationView.class);
     }
 
     @Test
     void getMyInvitation_WhenInvitationNotFound_ShouldThrowException() {
         // Given
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
+        when(invitationRepository.findByEventIdAndUserId(eventId, userId, InvitationView.class))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -98,32 +137,29 @@ class GuestServiceTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Invitation not found for event");
         
-        verify(invitationRepository).findByEventIdAndUserId(eventId, userId);
+        verify(invitationRepository).findByEventIdAndUserId(eventId, userId, InvitationView.class);
     }
 
     @Test
     void getMyAcceptedEvents_ShouldReturnAcceptedInvitations() {
         // Given
         invitation.setRsvpStatus(Invitation.RsvpStatus.ACCEPTED);
-        List<Invitation> acceptedInvitations = List.of(invitation);
-        when(invitationRepository.findByUserIdAndRsvpStatus(userId, Invitation.RsvpStatus.ACCEPTED))
-                .thenReturn(acceptedInvitations);
+        when(invitationInboxCache.acceptedEvents(userId)).thenReturn(InvitationInbox.of(List.of(view())));
 
         // When
-        List<Invitation> result = guestService.getMyAcceptedEvents(userId);
+        InvitationInbox result = guestService.getMyAcceptedEvents(userId);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getRsvpStatus()).isEqualTo(Invitation.RsvpStatus.ACCEPTED);
-        verify(invitationRepository).findByUserIdAndRsvpStatus(userId, Invitation.RsvpStatus.ACCEPTED);
+        assertThat(result.invitations()).hasSize(1);
+        assertThat(result.invitations().get(0).rsvpStatus()).isEqualTo(Invitation.RsvpStatus.ACCEPTED);
+        verifyNoInteractions(invitationRepository);
     }
 
     @Test
     void acceptInvitation_ShouldUpdateStatusAndPublishKafkaEvent() {
         // Given
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
-        when(invitationRepository.save(any(Invitation.class))).thenReturn(invitation);
+        when(invitationRepository.transitionRsvp(eq(eventId), eq(userId), eq(Invitation.RsvpStatus.ACCEPTED), any()))
+                .thenReturn(Optional.of(transition(Invitation.RsvpStatus.PENDING, Invitation.RsvpStatus.ACCEPTED)));
 
         // When
         Invitation result = guestService.acceptInvitation(eventId, userId);
@@ -134,36 +170,55 @@ class GuestServiceTest {
         
         ArgumentCaptor<String> topicCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaProducer).sendMessage(topicCaptor.capture(), messageCaptor.capture());
+        verify(outboxService).enqueue(topicCaptor.capture(), eq(eventId.toString()), messageCaptor.capture());
         
         assertThat(topicCaptor.getValue()).isEqualTo("rsvp-accepted");
         assertThat(messageCaptor.getValue()).contains(eventId.toString());
         assertThat(messageCaptor.getValue()).contains(userId.toString());
-        verify(invitationRepository).save(any(Invitation.class));
+        verify(invitationRepository, never()).save(any(Invitation.class));
+        verify(rsvpSummaryService).recordTransition(eventId, Invitation.RsvpStatus.PENDING, Invitation.RsvpStatus.ACCEPTED);
+        verify(invitationInboxCache).invalidate(userId);
+        ArgumentCaptor<RsvpChange> changeCaptor = ArgumentCaptor.forClass(RsvpChange.class);
+        verify(eventPublisher).publishEvent(changeCaptor.capture());
+        assertThat(changeCaptor.getValue().previousStatus()).isEqualTo(Invitation.RsvpStatus.PENDING);
+        assertThat(changeCaptor.getValue().status()).isEqualTo(Invitation.RsvpStatus.ACCEPTED);
     }
 
     @Test
-    void acceptInvitation_WhenAlreadyAccepted_ShouldStillUpdateAndPublish() {
+    void acceptInvitation_WhenAlreadyAccepted_ShouldNotPublishOrCountAgain() {
         // Given
-        invitation.setRsvpStatus(Invitation.RsvpStatus.ACCEPTED);
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
-        when(invitationRepository.save(any(Invitation.class))).thenReturn(invitation);
+        when(invitationRepository.transitionRsvp(eq(eventId), eq(userId), eq(Invitation.RsvpStatus.ACCEPTED), any()))
+                .thenReturn(Optional.of(transition(Invitation.RsvpStatus.ACCEPTED, Invitation.RsvpStatus.ACCEPTED)));
 
         // When
         Invitation result = guestService.acceptInvitation(eventId, userId);
 
         // Then
         assertThat(result.getRsvpStatus()).isEqualTo(Invitation.RsvpStatus.ACCEPTED);
-        verify(kafkaProducer).sendMessage(eq("rsvp-accepted"), anyString());
+        verifyNoInteractions(outboxService);
+        verifyNoInteractions(rsvpSummaryService);
+        verifyNoInteractions(invitationInboxCache);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void acceptInvitation_WhenInvitationNotFound_ShouldThrowException() {
+        // Given
+        when(invitationRepository.transitionRsvp(eq(eventId), eq(userId), eq(Invitation.RsvpStatus.ACCEPTED), any()))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> guestService.acceptInvitation(eventId, userId))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Invitation not found");
+        verifyNoInteractions(outboxService);
     }
 
     @Test
     void declineInvitation_ShouldUpdateStatusAndPublishKafkaEvent() {
         // Given
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
-        when(invitationRepository.save(any(Invitation.class))).thenReturn(invitation);
+        when(invitationRepository.transitionRsvp(eq(eventId), eq(userId), eq(Invitation.RsvpStatus.DECLINED), any()))
+                .thenReturn(Optional.of(transition(Invitation.RsvpStatus.ACCEPTED, Invitation.RsvpStatus.DECLINED)));
 
         // When
         Invitation result = guestService.declineInvitation(eventId, userId);
@@ -174,20 +229,20 @@ class GuestServiceTest {
         
         ArgumentCaptor<String> topicCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaProducer).sendMessage(topicCaptor.capture(), messageCaptor.capture());
+        verify(outboxService).enqueue(topicCaptor.capture(), eq(eventId.toString()), messageCaptor.capture());
         
         assertThat(topicCaptor.getValue()).isEqualTo("rsvp-declined");
         assertThat(messageCaptor.getValue()).contains(eventId.toString());
         assertThat(messageCaptor.getValue()).contains(userId.toString());
-        verify(invitationRepository).save(any(Invitation.class));
+        assertThat(messageCaptor.getValue()).contains("\"wasAccepted\":true");
+        verify(rsvpSummaryService).recordTransition(eventId, Invitation.RsvpStatus.ACCEPTED, Invitation.RsvpStatus.DECLINED);
     }
 
     @Test
     void maybeInvitation_ShouldUpdateStatusToMaybe() {
         // Given
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
-        when(invitationRepository.save(any(Invitation.class))).thenReturn(invitation);
+        when(invitationRepository.transitionRsvp(eq(eventId), eq(userId), eq(Invitation.RsvpStatus.MAYBE), any()))
+                .thenReturn(Optional.of(transition(Invitation.RsvpStatus.PENDING, Invitation.RsvpStatus.MAYBE)));
 
         // When
         Invitation result = guestService.maybeInvitation(eventId, userId);
@@ -195,141 +250,336 @@ class GuestServiceTest {
         // Then
         assertThat(result.getRsvpStatus()).isEqualTo(Invitation.RsvpStatus.MAYBE);
         assertThat(result.getRespondedAt()).isNotNull();
-        verify(invitationRepository).save(any(Invitation.class));
-        verifyNoInteractions(kafkaProducer);
+        verify(rsvpSummaryService).recordTransition(eventId, Invitation.RsvpStatus.PENDING, Invitation.RsvpStatus.MAYBE);
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void respondInBulk_ShouldApplyAllItemsWithOneUpdateAndOneOutboxInsert() {
+        // Given
+        UUID declinedUserId = UUID.randomUUID();
+        UUID missingUserId = UUID.randomUUID();
+        Invitation declined = Invitation.builder()
+                .eventId(eventId).userId(declinedUserId).organizationId(organizationId)
+                .rsvpStatus(Invitation.RsvpStatus.DECLINED).build();
+        List<BulkRsvpRequest.Item> items = List.of(
+                new BulkRsvpRequest.Item(eventId, userId, Invitation.RsvpStatus.ACCEPTED),
+                new BulkRsvpRequest.Item(eventId, declinedUserId, Invitation.RsvpStatus.DECLINED),
+                new BulkRsvpRequest.Item(eventId, missingUserId, Invitation.RsvpStatus.MAYBE));
+        RsvpTransition accepted = transition(Invitation.RsvpStatus.PENDING, Invitation.RsvpStatus.ACCEPTED);
+        RsvpTransition unchanged = new RsvpTransition(declined, Invitation.RsvpStatus.DECLINED, false);
+        when(invitationRepository.transitionRsvps(eq(organizationId), anyList(), any()))
+                .thenReturn(List.of(accepted, unchanged));
+
+        // When
+        List<BulkRsvpResult> results = guestService.respondInBulk(organizationId, items);
+
+        // Then
+        assertThat(results).extracting(BulkRsvpResult::outcome).containsExactly(
+                BulkRsvpResult.Outcome.UPDATED, BulkRsvpResult.Outcome.UNCHANGED, BulkRsvpResult.Outcome.NOT_FOUND);
+        assertThat(results.get(0).previousStatus()).isEqualTo(Invitation.RsvpStatus.PENDING);
+
+        ArgumentCaptor<List<Invitation>> requestedCaptor = ArgumentCaptor.forClass(List.class);
+        verify(invitationRepository).transitionRsvps(eq(organizationId), requestedCaptor.capture(), any());
+        assertThat(requestedCaptor.getValue()).extracting(Invitation::getUserId)
+                .containsExactly(userId, declinedUserId, missingUserId);
+        verify(rsvpSummaryService).recordTransitions(List.of(accepted, unchanged));
+
+        ArgumentCaptor<List<OutboxMessage>> messagesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).enqueueAll(messagesCaptor.capture());
+        assertThat(messagesCaptor.getValue()).singleElement().satisfies(message -> {
+            assertThat(message.getTopic()).isEqualTo("rsvp-accepted");
+            assertThat(message.getMessageKey()).isEqualTo(eventId.toString());
+            assertThat(message.getPayload()).contains(userId.toString());
+        });
+        verify(invitationInboxCache).invalidateAll(Set.of(userId));
+        verify(invitationRepository, never()).save(any(Invitation.class));
+    }
+
+    @Test
+    void respondInBulk_WhenItemAsksForPending_ShouldRejectRequest() {
+        // Given
+        List<BulkRsvpRequest.Item> items = List.of(
+                new BulkRsvpRequest.Item(eventId, userId, Invitation.RsvpStatus.PENDING));
+
+        // When & Then
+        assertThatThrownBy(() -> guestService.respondInBulk(organizationId, items))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Item 0");
+        verifyNoInteractions(invitationRepository, outboxService);
     }
 
     @Test
     void getEventInvitations_ShouldReturnAllInvitationsForEvent() {
         // Given
-        List<Invitation> invitations = List.of(invitation);
-        when(invitationRepository.findByEventId(eventId)).thenReturn(invitations);
+        List<InvitationView> invitations = List.of(view());
+        when(invitationRepository.findByEventId(eventId, InvitationView.class)).thenReturn(invitations);
 
         // When
-        List<Invitation> result = guestService.getEventInvitations(eventId);
+        List<InvitationView> result = guestService.getEventInvitations(eventId);
 
         // Then
         assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(invitation);
-        verify(invitationRepository).findByEventId(eventId);
+        assertThat(result.get(0)).isEqualTo(view());
+        verify(invitationRepository).findByEventId(eventId, InvitationView.class);
     }
 
     @Test
     void getInvitationsByOrganization_ShouldReturnOrganizationInvitations() {
         // Given
-        List<Invitation> invitations = List.of(invitation);
-        when(invitationRepository.findByOrganizationId(organizationId)).thenReturn(invitations);
+        List<InvitationView> invitations = List.of(view());
+        when(invitationRepository.findByOrganizationId(organizationId, InvitationView.class)).thenReturn(invitations);
 
         // When
-        List<Invitation> result = guestService.getInvitationsByOrganization(organizationId);
+        List<InvitationView> result = guestService.getInvitationsByOrganization(organizationId);
 
         // Then
         assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(invitation);
-        verify(invitationRepository).findByOrganizationId(organizationId);
+        assertThat(result.get(0)).isEqualTo(view());
+        verify(invitationRepository).findByOrganizationId(organizationId, InvitationView.class);
     }
 
     @Test
-    void handleGuestInvited_WhenInvitationDoesNotExist_ShouldCreateInvitation() {
+    void getEventRsvpSummary_ShouldReadMaterialisedCounters() {
         // Given
-        when(invitationRepository.existsByEventIdAndUserId(eventId, userId)).thenReturn(false);
-        when(invitationRepository.save(any(Invitation.class))).thenReturn(invitation);
+        EventRsvpSummary summary = EventRsvpSummary.builder()
+                .eventId(eventId)
+                .pendingCount(3)
+                .acceptedCount(2)
+                .build();
+        when(rsvpSummaryService.getSummary(eventId)).thenReturn(summary);
+
+        // When
+        EventRsvpSummary result = guestService.getEventRsvpSummary(eventId);
+
+        // Then
+        assertThat(result.getTotalCount()).isEqualTo(5);
+        verifyNoInteractions(invitationRepository);
+    }
+
+    @Test
+    void getEventInvitationsPage_WhenMoreRowsExist_ShouldReturnCursorOfLastItem() {
+        // Given
+        when(invitationRepository.findByEventId(eq(eventId), any(ScrollPosition.class), any(Sort.class), any(Limit.class),
+                eq(InvitationView.class)))
+                .thenReturn(Window.from(List.of(view()), i -> ScrollPosition.keyset(), true));
 
         // When
-        guestService.handleGuestInvited(eventId, userId, organizationId);
+        InvitationPage page = guestService.getEventInvitationsPage(eventId, null, 50);
 
         // Then
-        ArgumentCaptor<Invitation> invitationCaptor = ArgumentCaptor.forClass(Invitation.class);
-        verify(invitationRepository).save(invitationCaptor.capture());
+        assertThat(page.items()).containsExactly(view());
+        assertThat(InvitationCursor.decode(page.nextCursor())).isEqualTo(InvitationCursor.of(view()));
+        verify(invitationRepository).findByEventId(eventId, ScrollPosition.keyset(),
+                Sort.by("invitationReceivedAt", "id"), Limit.of(50), InvitationView.class);
+    }
+
+    @Test
+    void getMyInvitationsPage_ShouldSeekFromCursorAndClampLimit() {
+        // Given
+        InvitationCursor cursor = InvitationCursor.of(view());
+        when(invitationRepository.findByUserId(eq(userId), any(ScrollPosition.class), any(Sort.class), any(Limit.class),
+                eq(InvitationView.class)))
+                .thenReturn(Window.from(List.of(), i -> ScrollPosition.keyset(), false));
+
+        // When
+        InvitationPage page = guestService.getMyInvitationsPage(userId, cursor.encode(), 100_000);
+
+        // Then
+        assertThat(page.items()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+        verify(invitationRepository).findByUserId(userId, cursor.toScrollPosition(),
+                Sort.by("invitationReceivedAt", "id"), Limit.of(1000), InvitationView.class);
+    }
+
+    @Test
+    void getInvitationsByOrganizationPage_WhenCursorMalformed_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> guestService.getInvitationsByOrganizationPage(organizationId, "bm90LWEtY3Vyc29y", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(invitationRepository);
+    }
+
+    @Test
+    void streamEventInvitations_ShouldPassRowsToSink() {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<InvitationView> sink = invocation.getArgument(1);
+            sink.accept(view());
+            return null;
+        }).when(invitationRepository).forEachByEventId(eq(eventId), any());
+        List<InvitationView> received = new ArrayList<>();
+
+        // When
+        guestService.streamEventInvitations(eventId, received::add);
+
+        // Then
+        assertThat(received).containsExactly(view());
+    }
+
+    @Test
+    void handleGuestInvitedBatch_WhenInvitationDoesNotExist_ShouldCreateInvitation() {
+        // Given
+        when(invitationRepository.insertIgnoringDuplicates(anyList())).thenReturn(Map.of(eventId, 1));
+
+        // When
+        int created = guestService.handleGuestInvitedBatch(List.of(new GuestInvited(eventId, userId, organizationId)));
+
+        // Then
+        assertThat(created).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Invitation>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(invitationRepository).insertIgnoringDuplicates(batchCaptor.capture());
         
-        Invitation saved = invitationCaptor.getValue();
+        Invitation saved = batchCaptor.getValue().getFirst();
         assertThat(saved.getEventId()).isEqualTo(eventId);
         assertThat(saved.getUserId()).isEqualTo(userId);
         assertThat(saved.getOrganizationId()).isEqualTo(organizationId);
         assertThat(saved.getRsvpStatus()).isEqualTo(Invitation.RsvpStatus.PENDING);
+        verify(rsvpSummaryService).recordInvited(Map.of(eventId, 1));
+        verify(invitationInboxCache).invalidateAll(List.of(userId));
     }
 
     @Test
-    void handleGuestInvited_WhenInvitationAlreadyExists_ShouldNotCreateDuplicate() {
+    void handleGuestInvitedBatch_WhenInvitationAlreadyExists_ShouldNotCreateDuplicate() {
         // Given
-        when(invitationRepository.existsByEventIdAndUserId(eventId, userId)).thenReturn(true);
+        when(invitationRepository.insertIgnoringDuplicates(anyList())).thenReturn(Map.of());
 
         // When
-        guestService.handleGuestInvited(eventId, userId, organizationId);
+        int created = guestService.handleGuestInvitedBatch(List.of(new GuestInvited(eventId, userId, organizationId)));
 
         // Then
+        assertThat(created).isZero();
+        verify(rsvpSummaryService).recordInvited(Map.of());
         verify(invitationRepository, never()).save(any(Invitation.class));
     }
 
+    @Test
+    void handleGuestInvitedBatch_ShouldInsertAllInvitationsInOneCall() {
+        // Given
+        UUID otherUserId = UUID.randomUUID();
+        List<GuestInvited> invites = List.of(
+                new GuestInvited(eventId, userId, organizationId),
+                new GuestInvited(eventId, otherUserId, organizationId));
+        when(invitationRepository.insertIgnoringDuplicates(anyList())).thenReturn(Map.of(eventId, 1));
+
+        // When
+        int created = guestService.handleGuestInvitedBatch(invites);
+
+        // Then
+        assertThat(created).isEqualTo(1);
+        verify(rsvpSummaryService).recordInvited(Map.of(eventId, 1));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Invitation>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(invitationRepository).insertIgnoringDuplicates(batchCaptor.capture());
+
+        List<Invitation> batch = batchCaptor.getValue();
+        assertThat(batch).extracting(Invitation::getUserId).containsExactly(userId, otherUserId);
+        assertThat(batch).allSatisfy(saved -> {
+            assertThat(saved.getEventId()).isEqualTo(eventId);
+            assertThat(saved.getOrganizationId()).isEqualTo(organizationId);
+            assertThat(saved.getRsvpStatus()).isEqualTo(Invitation.RsvpStatus.PENDING);
+        });
+        verify(invitationRepository, never()).existsByEventIdAndUserId(any(), any());
+        verify(invitationRepository, never()).save(any(Invitation.class));
+        verify(invitationInboxCache).invalidateAll(List.of(userId, otherUserId));
+    }
+
+    @Test
+    void handleGuestInvitedBatch_WhenEmpty_ShouldNotTouchDatabase() {
+        // When
+        int created = guestService.handleGuestInvitedBatch(List.of());
+
+        // Then
+        assertThat(created).isZero();
+        verifyNoInteractions(invitationRepository);
+    }
+
     @Test
     void handleGuestRemoved_WhenInvitationExists_ShouldDeleteInvitation() {
         // Given
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
+        when(invitationRepository.deleteReturningStatus(eventId, userId))
+                .thenReturn(Optional.of(Invitation.RsvpStatus.DECLINED));
 
         // When
         guestService.handleGuestRemoved(eventId, userId);
 
         // Then
-        verify(invitationRepository).delete(invitation);
+        verify(invitationRepository).deleteReturningStatus(eventId, userId);
+        verify(rsvpSummaryService).recordTransition(eventId, Invitation.RsvpStatus.DECLINED, null);
+        verify(invitationInboxCache).invalidate(userId);
     }
 
     @Test
     void handleGuestRemoved_WhenInvitationWasAccepted_ShouldPublishRsvpDeclinedEvent() {
         // Given
-        invitation.setRsvpStatus(Invitation.RsvpStatus.ACCEPTED);
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
+        when(invitationRepository.deleteReturningStatus(eventId, userId))
+                .thenReturn(Optional.of(Invitation.RsvpStatus.ACCEPTED));
 
         // When
         guestService.handleGuestRemoved(eventId, userId);
 
         // Then
-        verify(invitationRepository).delete(invitation);
-        
         ArgumentCaptor<String> topicCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaProducer).sendMessage(topicCaptor.capture(), messageCaptor.capture());
+        verify(outboxService).enqueue(topicCaptor.capture(), eq(eventId.toString()), messageCaptor.capture());
         
         assertThat(topicCaptor.getValue()).isEqualTo("rsvp-declined");
         assertThat(messageCaptor.getValue()).contains("\"wasAccepted\":true");
+        verify(rsvpSummaryService).recordTransition(eventId, Invitation.RsvpStatus.ACCEPTED, null);
     }
 
     @Test
     void handleGuestRemoved_WhenInvitationWasPending_ShouldNotPublishKafkaEvent() {
         // Given
-        invitation.setRsvpStatus(Invitation.RsvpStatus.PENDING);
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.of(invitation));
+        when(invitationRepository.deleteReturningStatus(eventId, userId))
+                .thenReturn(Optional.of(Invitation.RsvpStatus.PENDING));
 
         // When
         guestService.handleGuestRemoved(eventId, userId);
 
         // Then
-        verify(invitationRepository).delete(invitation);
-        verifyNoInteractions(kafkaProducer);
+        verify(rsvpSummaryService).recordTransition(eventId, Invitation.RsvpStatus.PENDING, null);
+        verifyNoInteractions(outboxService);
     }
 
     @Test
     void handleGuestRemoved_WhenInvitationNotFound_ShouldDoNothing() {
         // Given
-        when(invitationRepository.findByEventIdAndUserId(eventId, userId))
-                .thenReturn(Optional.empty());
+        when(invitationRepository.deleteReturningStatus(eventId, userId)).thenReturn(Optional.empty());
 
         // When
         guestService.handleGuestRemoved(eventId, userId);
 
         // Then
-        verify(invitationRepository, never()).delete(any(Invitation.class));
-        verifyNoInteractions(kafkaProducer);
+        verifyNoInteractions(outboxService, rsvpSummaryService, invitationInboxCache);
     }
 
     @Test
     void handleEventDeleted_ShouldDeleteAllInvitationsForEvent() {
+        // Given
+        when(eventDeletionService.deleteInvitations(eventId)).thenReturn(3L);
+
         // Act
         guestService.handleEventDeleted(eventId);
 
         // Then
-        verify(invitationRepository).deleteByEventId(eventId);
+        verify(eventDeletionService).deleteInvitations(eventId);
+        verify(invitationInboxCache).invalidateEvent(eventId);
+        verifyNoInteractions(invitationRepository);
+    }
+
+    private InvitationView view() {
+        return new InvitationView(invitation.getId(), invitation.getEventId(), invitation.getUserId(),
+                invitation.getOrganizationId(), invitation.getRsvpStatus(), invitation.getRespondedAt(),
+                invitation.getInvitationReceivedAt());
+    }
+
+    private RsvpTransition transition(Invitation.RsvpStatus previous, Invitation.RsvpStatus current) {
+        invitation.setRsvpStatus(current);
+        invitation.setRespondedAt(LocalDateTime.now());
+        return new RsvpTransition(invitation, previous, previous != current);
     }
 }
@@ -0,0 +1,146 @@
+package com.planify.guest.service;
+
+import com.planify.guest.dto.InvitationInbox;
+import com.planify.guest.dto.InvitationView;
+import com.planify.guest.model.Invitation;
+import com.planify.guest.repository.InvitationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvitationInboxCacheTest {
+
+    @Mock
+    private InvitationRepository invitationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InvitationInboxCache inboxCache;
+    private UUID userId;
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReadYourWritesWindow readYourWritesWindow = new ReadYourWritesWindow(meterRegistry, true, Duration.ofSeconds(5), 100);
+        inboxCache = new InvitationInboxCache(invitationRepository, readYourWritesWindow, transactionManager,
+                meterRegistry, 1000, Duration.ofMinutes(1));
+        userId = UUID.randomUUID();
+        eventId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void invitationsAndAcceptedEvents_ShouldShareOneLoad() {
+        // Given
+        InvitationView accepted = view(eventId, Invitation.RsvpStatus.ACCEPTED);
+        InvitationView pending = view(UUID.randomUUID(), Invitation.RsvpStatus.PENDING);
+        when(invitationRepository.findByUserId(userId, InvitationView.class)).thenReturn(List.of(accepted, pending));
+
+        // When
+        InvitationInbox first = inboxCache.invitations(userId);
+        InvitationInbox second = inboxCache.invitations(userId);
+        InvitationInbox acceptedEvents = inboxCache.acceptedEvents(userId);
+
+        // Then
+        assertThat(first.invitations()).containsExactly(accepted, pending);
+        assertThat(second.etag()).isEqualTo(first.etag());
+        assertThat(acceptedEvents.invitations()).containsExactly(accepted);
+        assertThat(acceptedEvents.etag()).isNotEqualTo(first.etag());
+        verify(invitationRepository, times(1)).findByUserId(userId, InvitationView.class);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "invitation-inbox").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_InsideTransaction_ShouldDropInboxOnlyAfterCommit() {
+        // Given
+        when(invitationRepository.findByUserId(userId, InvitationView.class))
+                .thenReturn(List.of(view(eventId, Invitation.RsvpStatus.PENDING)))
+                .thenReturn(List.of(view(eventId, Invitation.RsvpStatus.ACCEPTED)));
+        String before = inboxCache.invitations(userId).etag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        inboxCache.invalidate(userId);
+        String beforeCommit = inboxCache.invitations(userId).etag();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        String afterCommit = inboxCache.invitations(userId).etag();
+
+        // Then
+        assertThat(beforeCommit).isEqualTo(before);
+        assertThat(afterCommit).isNotEqualTo(before);
+        verify(invitationRepository, times(2)).findByUserId(userId, InvitationView.class);
+    }
+
+    @Test
+    void invalidateEvent_ShouldDropOnlyInboxesContainingEvent() {
+        // Given
+        UUID otherUserId = UUID.randomUUID();
+        when(invitationRepository.findByUserId(userId, InvitationView.class))
+                .thenReturn(List.of(view(eventId, Invitation.RsvpStatus.PENDING)));
+        when(invitationRepository.findByUserId(otherUserId, InvitationView.class))
+                .thenReturn(List.of(view(UUID.randomUUID(), Invitation.RsvpStatus.PENDING)));
+        inboxCache.invitations(userId);
+        inboxCache.invitations(otherUserId);
+
+        // When
+        inboxCache.invalidateEvent(eventId);
+        inboxCache.invitations(userId);
+        inboxCache.invitations(otherUserId);
+
+        // Then
+        verify(invitationRepository, times(2)).findByUserId(userId, InvitationView.class);
+        verify(invitationRepository, times(1)).findByUserId(otherUserId, InvitationView.class);
+    }
+
+    @Test
+    void reloadAfterInvalidate_ShouldReadFromPrimary() {
+        // Given
+        List<Boolean> primaryRequired = new ArrayList<>();
+        when(invitationRepository.findByUserId(any(UUID.class), eq(InvitationView.class))).thenAnswer(invocation -> {
+            primaryRequired.add(ReadYourWritesWindow.isPrimaryRequired());
+            return List.of();
+        });
+
+        // When
+        inboxCache.invitations(userId);
+        inboxCache.invalidate(userId);
+        inboxCache.invitations(userId);
+        inboxCache.invitations(UUID.randomUUID());
+
+        // Then
+        assertThat(primaryRequired).containsExactly(false, true, false);
+        assertThat(ReadYourWritesWindow.isPrimaryRequired()).isFalse();
+    }
+
+    private InvitationView view(UUID event, Invitation.RsvpStatus status) {
+        return new InvitationView(UUID.randomUUID(), event, userId, UUID.randomUUID(), status,
+                status == Invitation.RsvpStatus.PENDING ? null : LocalDateTime.now(), LocalDateTime.now());
+    }
+}
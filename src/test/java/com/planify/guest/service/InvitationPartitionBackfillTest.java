@@ -0,0 +1,92 @@
+package com.planify.guest.service;
+
+import com.planify.guest.repository.InvitationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvitationPartitionBackfillTest {
+
+    private static final int PARTITIONS = 8;
+    private static final int BATCH_SIZE = 100;
+    private static final Duration LOCK_WAIT = Duration.ofSeconds(5);
+
+    @Mock
+    private InvitationRepository invitationRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void runOnce_ShouldPrepareOnceThenCopyBatchesAndSwapWhenDone() {
+        // Given
+        InvitationPartitionBackfill backfill = backfill(true);
+        when(invitationRepository.preparePartitioning(PARTITIONS)).thenReturn(true);
+        when(invitationRepository.backfillPartitioned(BATCH_SIZE)).thenReturn(BATCH_SIZE, 42, 0);
+        when(invitationRepository.swapPartitioned(LOCK_WAIT)).thenReturn(true);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            backfill.runOnce();
+        }
+
+        // Then
+        verify(invitationRepository, times(1)).preparePartitioning(PARTITIONS);
+        verify(invitationRepository, times(3)).backfillPartitioned(BATCH_SIZE);
+        verify(invitationRepository, times(1)).swapPartitioned(LOCK_WAIT);
+        assertThat(backfill.isFinished()).isTrue();
+        assertThat(meterRegistry.counter("guest.partitioning.backfill.rows").count()).isEqualTo(142);
+    }
+
+    @Test
+    void runOnce_WhenSwapDisabled_ShouldStopAfterCopy() {
+        // Given
+        InvitationPartitionBackfill backfill = backfill(false);
+        when(invitationRepository.backfillPartitioned(BATCH_SIZE)).thenReturn(0);
+
+        // When
+        backfill.runOnce();
+
+        // Then
+        verify(invitationRepository, never()).swapPartitioned(any());
+        assertThat(backfill.isFinished()).isTrue();
+    }
+
+    @Test
+    void runOnce_WhenSwapLockTimesOut_ShouldRetryOnNextRun() {
+        // Given
+        InvitationPartitionBackfill backfill = backfill(true);
+        when(invitationRepository.backfillPartitioned(BATCH_SIZE)).thenReturn(0);
+        when(invitationRepository.swapPartitioned(LOCK_WAIT))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(true);
+
+        // When
+        backfill.runOnce();
+        boolean finishedAfterTimeout = backfill.isFinished();
+        backfill.runOnce();
+
+        // Then
+        assertThat(finishedAfterTimeout).isFalse();
+        assertThat(backfill.isFinished()).isTrue();
+        verify(invitationRepository, times(2)).swapPartitioned(LOCK_WAIT);
+    }
+
+    private InvitationPartitionBackfill backfill(boolean swap) {
+        return new InvitationPartitionBackfill(invitationRepository, meterRegistry, PARTITIONS, BATCH_SIZE, swap, LOCK_WAIT);
+    }
+}
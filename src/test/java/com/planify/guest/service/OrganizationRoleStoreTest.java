@@ -0,0 +1,116 @@
+package com.planify.guest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.event.OrganizationRoleChanged;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrganizationRoleStoreTest {
+
+    private static final String TOPIC = "organization-role-changed";
+
+    @TempDir
+    Path tempDir;
+
+    private OrganizationRoleStore roleStore;
+    private UUID orgId;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        roleStore = new OrganizationRoleStore(new ObjectMapper(), Duration.ofMinutes(5));
+        orgId = UUID.randomUUID();
+        now = Instant.parse("2026-01-01T12:00:00Z");
+    }
+
+    @Test
+    void findRoles_ShouldNotAnswerBeforeFirstCatchUp() {
+        // Given
+        roleStore.apply(0, 0, new OrganizationRoleChanged("user-1", orgId, Set.of("organiser")));
+
+        // When
+        Optional<Set<String>> beforeCatchUp = roleStore.findRoles("user-1", orgId, now);
+        roleStore.recordLag(0, now);
+        Optional<Set<String>> afterCatchUp = roleStore.findRoles("user-1", orgId, now);
+
+        // Then
+        assertThat(beforeCatchUp).isEmpty();
+        assertThat(afterCatchUp).contains(Set.of("ORGANISER"));
+    }
+
+    @Test
+    void findRoles_ShouldDistinguishSeenSubjectWithoutMembershipFromUnseenSubject() {
+        // Given
+        roleStore.apply(0, 0, new OrganizationRoleChanged("user-1", orgId, Set.of("ORG_ADMIN")));
+        roleStore.apply(0, 1, new OrganizationRoleChanged("user-1", orgId, Set.of()));
+        roleStore.recordLag(0, now);
+
+        // When / Then
+        assertThat(roleStore.findRoles("user-1", orgId, now)).contains(Set.of());
+        assertThat(roleStore.findRoles("user-2", orgId, now)).isEmpty();
+        assertThat(roleStore.nextOffset(0)).isEqualTo(OptionalLong.of(2));
+    }
+
+    @Test
+    void findRoles_ShouldStopAnsweringWhenLaggingLongerThanMaxStaleness() {
+        // Given
+        roleStore.apply(0, 0, new OrganizationRoleChanged("user-1", orgId, Set.of("ORG_ADMIN")));
+        roleStore.recordLag(0, now);
+        roleStore.recordLag(42, now.plusSeconds(60));
+
+        // When / Then
+        assertThat(roleStore.findRoles("user-1", orgId, now.plus(Duration.ofMinutes(4)))).isPresent();
+        assertThat(roleStore.isStale(now.plus(Duration.ofMinutes(6)))).isTrue();
+        assertThat(roleStore.findRoles("user-1", orgId, now.plus(Duration.ofMinutes(6)))).isEmpty();
+    }
+
+    @Test
+    void findRoles_ShouldStopAnsweringWhenLagReportsStopAfterCatchUp() {
+        // Given
+        roleStore.apply(0, 0, new OrganizationRoleChanged("user-1", orgId, Set.of("ORG_ADMIN")));
+        roleStore.recordLag(0, now);
+        roleStore.recordLag(0, now.plusSeconds(30));
+
+        // When / Then
+        assertThat(roleStore.isStale(now.plus(Duration.ofMinutes(5)))).isFalse();
+        assertThat(roleStore.isStale(now.plus(Duration.ofMinutes(6)))).isTrue();
+        assertThat(roleStore.findRoles("user-1", orgId, now.plus(Duration.ofMinutes(6)))).isEmpty();
+        roleStore.recordLag(0, now.plus(Duration.ofMinutes(7)));
+        assertThat(roleStore.findRoles("user-1", orgId, now.plus(Duration.ofMinutes(7)))).isPresent();
+    }
+
+    @Test
+    void loadSnapshot_ShouldRestoreMembershipsAndOffsetsOfSameTopic() throws Exception {
+        // Given
+        Path snapshot = tempDir.resolve("roles.json");
+        roleStore.apply(0, 10, new OrganizationRoleChanged("user-1", orgId, Set.of("ORGANISER")));
+        roleStore.apply(1, 4, null);
+        roleStore.writeSnapshot(snapshot, TOPIC);
+
+        OrganizationRoleStore restored = new OrganizationRoleStore(new ObjectMapper(), Duration.ofMinutes(5));
+        OrganizationRoleStore foreign = new OrganizationRoleStore(new ObjectMapper(), Duration.ofMinutes(5));
+
+        // When
+        boolean loaded = restored.loadSnapshot(snapshot, TOPIC);
+        boolean foreignLoaded = foreign.loadSnapshot(snapshot, "other-topic");
+        restored.recordLag(0, now);
+
+        // Then
+        assertThat(loaded).isTrue();
+        assertThat(foreignLoaded).isFalse();
+        assertThat(restored.nextOffset(0)).isEqualTo(OptionalLong.of(11));
+        assertThat(restored.nextOffset(1)).isEqualTo(OptionalLong.of(5));
+        assertThat(restored.findRoles("user-1", orgId, now)).contains(Set.of("ORGANISER"));
+    }
+}
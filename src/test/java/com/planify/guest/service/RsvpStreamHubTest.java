@@ -0,0 +1,156 @@
+package com.planify.guest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.planify.guest.dto.RsvpChange;
+import com.planify.guest.model.Invitation.RsvpStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RsvpStreamHubTest {
+
+    private static final int BUFFER_SIZE = 2;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CountDownLatch writable;
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private volatile boolean disconnected;
+    private BlockingQueue<String> sent;
+    private RsvpStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writable = new CountDownLatch(0);
+        sent = new LinkedBlockingQueue<>();
+        hub = new RsvpStreamHub(new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry,
+                BUFFER_SIZE, 3, Duration.ofMinutes(1)) {
+            @Override
+            SseEmitter newEmitter(Duration timeout) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        writable.countDown();
+        hub.close();
+    }
+
+    @Test
+    void onRsvpChange_ShouldPushOnlyToSubscribersOfTheEvent() throws Exception {
+        // Given
+        UUID eventId = UUID.randomUUID();
+        hub.subscribe(eventId);
+        hub.subscribe(UUID.randomUUID());
+        assertThat(List.of(next(), next())).allMatch(frame -> frame.contains("connected"));
+
+        // When
+        hub.onRsvpChange(change(eventId));
+
+        // Then
+        String frame = next();
+        assertThat(frame).contains("event:rsvp").contains("\"status\":\"ACCEPTED\"").contains(eventId.toString());
+        assertThat(sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void onRsvpChange_SlowSubscriber_ShouldDropOldestChanges() throws Exception {
+        // Given
+        writable = new CountDownLatch(1);
+        UUID eventId = UUID.randomUUID();
+        hub.subscribe(eventId);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            hub.onRsvpChange(change(eventId));
+        }
+        writable.countDown();
+
+        // Then
+        assertThat(next()).contains("connected");
+        assertThat(List.of(next(), next())).satisfiesExactly(
+                frame -> assertThat(frame).contains("id:4"),
+                frame -> assertThat(frame).contains("id:5"));
+        assertThat(meterRegistry.get("guest.rsvp.stream.dropped").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void subscribe_WhenFull_ShouldRejectUntilAHeartbeatFindsClosedStreams() throws Exception {
+        // Given
+        UUID eventId = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            hub.subscribe(eventId);
+            assertThat(next()).contains("connected");
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> hub.subscribe(eventId)).isInstanceOf(IllegalStateException.class);
+        disconnected = true;
+        hub.heartbeat();
+        await(() -> hub.subscriberCount() == 0);
+        assertThat(meterRegistry.get("guest.rsvp.stream.subscribers").gauge().value()).isZero();
+        disconnected = false;
+        hub.subscribe(eventId);
+        assertThat(next()).contains("connected");
+    }
+
+    private static RsvpChange change(UUID eventId) {
+        return new RsvpChange(eventId, UUID.randomUUID(), RsvpStatus.PENDING, RsvpStatus.ACCEPTED, LocalDateTime.now());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private String next() throws InterruptedException {
+        String frame = sent.poll(5, TimeUnit.SECONDS);
+        assertThat(frame).isNotNull();
+        return frame;
+    }
+
+    // Records every frame instead of writing it; blocks like a full socket until writable opens
+    // and fails like a closed one while disconnected
+    private class RecordingEmitter extends SseEmitter {
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (disconnected) {
+                throw new IOException("Broken pipe");
+            }
+            writing.countDown();
+            try {
+                writable.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.planify.guest.service;
+
+import com.planify.guest.model.EventRsvpSummary;
+import com.planify.guest.model.Invitation;
+import com.planify.guest.model.Invitation.RsvpStatus;
+import com.planify.guest.repository.EventRsvpSummaryRepository;
+import com.planify.guest.repository.EventRsvpSummaryRepositoryCustom.RsvpDelta;
+import com.planify.guest.repository.InvitationRepositoryCustom.RsvpTransition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RsvpSummaryServiceTest {
+
+    @Mock
+    private EventRsvpSummaryRepository summaryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RsvpSummaryService rsvpSummaryService;
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rsvpSummaryService = new RsvpSummaryService(summaryRepository, meterRegistry);
+        eventId = UUID.randomUUID();
+    }
+
+    @Test
+    void recordTransition_ShouldMoveOneInvitationBetweenCounters() {
+        // When
+        rsvpSummaryService.recordTransition(eventId, RsvpStatus.PENDING, RsvpStatus.ACCEPTED);
+
+        // Then
+        verify(summaryRepository).applyDelta(eventId, -1, 1, 0, 0);
+    }
+
+    @Test
+    void recordTransition_ForNewAndRemovedInvitations_ShouldOnlyTouchOneCounter() {
+        // When
+        rsvpSummaryService.recordTransition(eventId, null, RsvpStatus.PENDING);
+        rsvpSummaryService.recordTransition(eventId, RsvpStatus.MAYBE, null);
+
+        // Then
+        verify(summaryRepository).applyDelta(eventId, 1, 0, 0, 0);
+        verify(summaryRepository).applyDelta(eventId, 0, 0, 0, -1);
+    }
+
+    @Test
+    void recordTransition_WhenStatusUnchanged_ShouldNotWrite() {
+        // When
+        rsvpSummaryService.recordTransition(eventId, RsvpStatus.DECLINED, RsvpStatus.DECLINED);
+
+        // Then
+        verify(summaryRepository, never()).applyDelta(any(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void recordTransitions_ShouldSumChangedTransitionsPerEvent() {
+        // Given
+        UUID otherEventId = UUID.randomUUID();
+        List<RsvpTransition> transitions = List.of(
+                transition(eventId, RsvpStatus.PENDING, RsvpStatus.ACCEPTED, true),
+                transition(eventId, RsvpStatus.ACCEPTED, RsvpStatus.DECLINED, true),
+                transition(eventId, RsvpStatus.MAYBE, RsvpStatus.MAYBE, false),
+                transition(otherEventId, RsvpStatus.PENDING, RsvpStatus.MAYBE, true));
+
+        // When
+        rsvpSummaryService.recordTransitions(transitions);
+
+        // Then
+        verify(summaryRepository).applyDeltas(Map.of(
+                eventId, new RsvpDelta(-1, 0, 1, 0),
+                otherEventId, new RsvpDelta(-1, 0, 0, 1)));
+    }
+
+    @Test
+    void recordTransitions_ShouldCountTransitionsByStatus() {
+        // Given
+        List<RsvpTransition> transitions = List.of(
+                transition(eventId, RsvpStatus.PENDING, RsvpStatus.ACCEPTED, true),
+                transition(UUID.randomUUID(), RsvpStatus.PENDING, RsvpStatus.ACCEPTED, true),
+                transition(eventId, RsvpStatus.MAYBE, RsvpStatus.MAYBE, false));
+
+        // When
+        rsvpSummaryService.recordTransitions(transitions);
+        rsvpSummaryService.recordInvited(Map.of(eventId, 3));
+        rsvpSummaryService.recordTransition(eventId, RsvpStatus.DECLINED, null);
+
+        // Then
+        assertThat(meterRegistry.get("guest.rsvp.transitions").tag("from", "PENDING").tag("to", "ACCEPTED")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("guest.rsvp.transitions").tag("from", "none").tag("to", "PENDING")
+                .counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("guest.rsvp.transitions").tag("from", "DECLINED").tag("to", "none")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("guest.rsvp.transitions").tag("from", "MAYBE").counter()).isNull();
+    }
+
+    @Test
+    void getSummary_WhenEventHasNoRow_ShouldReturnZeroCounters() {
+        // Given
+        when(summaryRepository.findById(eventId)).thenReturn(Optional.empty());
+
+        // When
+        EventRsvpSummary summary = rsvpSummaryService.getSummary(eventId);
+
+        // Then
+        assertThat(summary.getEventId()).isEqualTo(eventId);
+        assertThat(summary.getTotalCount()).isZero();
+    }
+
+    @Test
+    void reconcile_ShouldCountDriftedEvents() {
+        // Given
+        when(summaryRepository.reconcile()).thenReturn(List.of(eventId, UUID.randomUUID()));
+
+        // When
+        int drifted = rsvpSummaryService.reconcile();
+
+        // Then
+        assertThat(drifted).isEqualTo(2);
+        assertThat(meterRegistry.counter("guest.rsvp.summary.drift").count()).isEqualTo(2);
+    }
+
+    private static RsvpTransition transition(UUID eventId, RsvpStatus from, RsvpStatus to, boolean changed) {
+        Invitation invitation = Invitation.builder().eventId(eventId).rsvpStatus(to).build();
+        return new RsvpTransition(invitation, from, changed);
+    }
+}
@@ -0,0 +1,233 @@
+package com.planify.guest.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planify.guest.config.CacheConfig;
+import com.planify.guest.event.OrganizationRoleChanged;
+import com.planify.guest.service.SecurityService.OrganizationRoleKey;
+import com.planify.guest.service.SecurityService.RoleLookup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityServiceTest {
+
+    private static final List<String> ORGANISER_ROLES = List.of("ORG_ADMIN", "ORGANISER");
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrganizationRoleStore roleStore;
+    private SecurityService securityService;
+    private UUID orgId;
+    private Jwt jwt;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        roleStore = new OrganizationRoleStore(new ObjectMapper(), Duration.ofMinutes(5));
+        AsyncCache<OrganizationRoleKey, RoleLookup> cache = new CacheConfig()
+                .organizationRoleCache(meterRegistry, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        securityService = new SecurityService(userServiceClient, cache, roleStore, meterRegistry, "org_roles");
+        orgId = UUID.randomUUID();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user-1")
+                .build();
+        authenticate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_ShouldServeRepeatedChecksFromCache() {
+        // Given
+        when(userServiceClient.getOrganizationRoles(orgId, "token")).thenReturn(Set.of("ORGANISER"));
+
+        // When
+        boolean first = securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+        boolean second = securityService.hasAnyRoleInOrganization(orgId, List.of("organiser"));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(userServiceClient, times(1)).getOrganizationRoles(orgId, "token");
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_WhenUserServiceFails_ShouldDenyAndCacheFailure() {
+        // Given
+        when(userServiceClient.getOrganizationRoles(orgId, "token"))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        // When
+        boolean first = securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+        boolean second = securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+
+        // Then
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        verify(userServiceClient, times(1)).getOrganizationRoles(orgId, "token");
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_ShouldCoalesceConcurrentMissesForSameKey() throws Exception {
+        // Given
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userServiceClient.getOrganizationRoles(orgId, "token")).thenAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Set.of("ORG_ADMIN");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<Boolean> loader = executor.submit(this::checkAsAuthenticatedUser);
+            assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Boolean> waiter = executor.submit(this::checkAsAuthenticatedUser);
+            release.countDown();
+
+            // Then
+            assertThat(loader.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+            verify(userServiceClient, times(1)).getOrganizationRoles(any(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_ShouldCacheRolesPerSubject() {
+        // Given
+        when(userServiceClient.getOrganizationRoles(orgId, "token")).thenReturn(Set.of("ORGANISER"));
+        securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user-2")
+                .build();
+        authenticate();
+
+        // When
+        securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+
+        // Then
+        verify(userServiceClient, times(2)).getOrganizationRoles(orgId, "token");
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_WhenTokenHasOrgRolesClaim_ShouldNotCallUserService() {
+        // Given
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user-1")
+                .claim("org_roles", Map.of(orgId.toString(), List.of("organiser")))
+                .build();
+        authenticate();
+
+        // When
+        boolean allowed = securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+        boolean otherOrgAllowed = securityService.hasAnyRoleInOrganization(UUID.randomUUID(), ORGANISER_ROLES);
+
+        // Then
+        assertThat(allowed).isTrue();
+        assertThat(otherOrgAllowed).isFalse();
+        verifyNoInteractions(userServiceClient);
+        assertThat(meterRegistry.get("guest.authz.org-roles.resolved").tag("source", "jwt").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("guest.authz.org-roles.resolved").tag("source", "user-service").counter().count()).isZero();
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_WhenOrgRolesClaimIsMalformed_ShouldFallBackToUserService() {
+        // Given
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user-1")
+                .claim("org_roles", "ORGANISER")
+                .build();
+        authenticate();
+        when(userServiceClient.getOrganizationRoles(orgId, "token")).thenReturn(Set.of("ORGANISER"));
+
+        // When
+        boolean allowed = securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+
+        // Then
+        assertThat(allowed).isTrue();
+        verify(userServiceClient).getOrganizationRoles(orgId, "token");
+        assertThat(meterRegistry.get("guest.authz.org-roles.resolved").tag("source", "user-service").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_WhenReplicaKnowsSubject_ShouldNotCallUserService() {
+        // Given
+        roleStore.apply(0, 0, new OrganizationRoleChanged("user-1", orgId, Set.of("ORG_ADMIN")));
+        roleStore.recordLag(0, Instant.now());
+
+        // When
+        boolean allowed = securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+        boolean otherOrgAllowed = securityService.hasAnyRoleInOrganization(UUID.randomUUID(), ORGANISER_ROLES);
+
+        // Then
+        assertThat(allowed).isTrue();
+        assertThat(otherOrgAllowed).isFalse();
+        verifyNoInteractions(userServiceClient);
+        assertThat(meterRegistry.get("guest.authz.org-roles.resolved").tag("source", "replica").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void hasAnyRoleInOrganization_WhenReplicaHasNotSeenSubject_ShouldFallBackToUserService() {
+        // Given
+        roleStore.apply(0, 0, new OrganizationRoleChanged("user-2", orgId, Set.of("ORG_ADMIN")));
+        roleStore.recordLag(0, Instant.now());
+        when(userServiceClient.getOrganizationRoles(orgId, "token")).thenReturn(Set.of("ORGANISER"));
+
+        // When
+        boolean allowed = securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+
+        // Then
+        assertThat(allowed).isTrue();
+        verify(userServiceClient).getOrganizationRoles(orgId, "token");
+    }
+
+    private boolean checkAsAuthenticatedUser() {
+        authenticate();
+        try {
+            return securityService.hasAnyRoleInOrganization(orgId, ORGANISER_ROLES);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+}